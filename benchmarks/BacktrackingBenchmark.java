@@ -0,0 +1,31 @@
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// The randomized backtracker needs tens of seconds even for the easy set and minutes
+// beyond it, so it gets single shots on that set alone; the timeout interrupts it,
+// which the search checks for
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Timeout(time = 300)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BacktrackingBenchmark {
+
+    private int[][][] puzzles;
+
+    @Setup
+    public void load() {
+        puzzles = PuzzleSets.get("easy");
+    }
+
+    @Benchmark
+    public void backtracking(Blackhole blackhole) {
+        for (int[][] puzzle : puzzles) {
+            blackhole.consume(new BacktrackingSudokuSolver(puzzle).trySolve());
+        }
+    }
+}
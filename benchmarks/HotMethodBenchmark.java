@@ -0,0 +1,75 @@
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// The inner-loop methods of the solvers, each measured on the same medium puzzle
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HotMethodBenchmark {
+
+    private SudokuBoard board;
+    private ConstraintProgrammingSudokuSolver constraintSolver;
+    private RelationResidualSudokuSolver relationSolver;
+    private StochasticSudokuSolver stochasticSolver;
+
+    // An empty cell and one of its candidates, for the place/undo pair
+    private int row;
+    private int col;
+    private int value;
+
+    @Setup
+    public void setUp() {
+        int[][] puzzle = PuzzleSets.get("medium")[0];
+        board = new SudokuBoard(puzzle);
+        constraintSolver = new ConstraintProgrammingSudokuSolver(puzzle);
+        relationSolver = new RelationResidualSudokuSolver(puzzle);
+        stochasticSolver = new StochasticSudokuSolver(puzzle);
+        stochasticSolver.fillRandomInBlocks();
+
+        int cell = relationSolver.getCellWithFewestCandidates();
+        row = cell / 9;
+        col = cell % 9;
+        value = Long.numberOfTrailingZeros(board.candidates(row, col)) + 1;
+    }
+
+    @Benchmark
+    public int isValid() {
+        int valid = 0;
+        for (int cell = 0; cell < 81; cell++) {
+            for (int num = 1; num <= 9; num++) {
+                if (board.isValid(cell / 9, cell % 9, num)) valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int countValidValues() {
+        int total = 0;
+        for (int cell = 0; cell < 81; cell++) {
+            total += constraintSolver.countValidValues(cell / 9, cell % 9);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public int getCellWithFewestCandidates() {
+        return relationSolver.getCellWithFewestCandidates();
+    }
+
+    // What cloneResiduals used to cost per search node is now a trail push and pop
+    @Benchmark
+    public void updateAndUndoResiduals() {
+        relationSolver.updateResiduals(row, col, value);
+        relationSolver.undoResiduals(row, col, 0);
+    }
+
+    @Benchmark
+    public int computeConflicts() {
+        return stochasticSolver.computeConflicts();
+    }
+}
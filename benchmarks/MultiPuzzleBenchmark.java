@@ -0,0 +1,72 @@
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// One corpus of generated puzzles solved three ways: a reset ConstraintProgrammingSudokuSolver
+// per puzzle, and MultiPuzzleSolver with the scalar and with the vector kernel (which
+// falls back to scalar when vector/ is not compiled in). Clues 36 gives puzzles singles
+// settle on their own, 0 minimal ones that mostly need the search after propagation.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class MultiPuzzleBenchmark {
+
+    private static final int PUZZLES = 1024;
+    private static final int CELLS = SudokuGeometry.CLASSIC.cells;
+
+    @Param({"36", "0"})
+    public int clues;
+
+    private byte[] givens;
+    private byte[] solutions;
+    private PackedBoard board;
+    private ConstraintProgrammingSudokuSolver constraintSolver;
+    private MultiPuzzleSolver scalarSolver;
+    private MultiPuzzleSolver vectorSolver;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        PuzzleGenerator generator = new PuzzleGenerator(SudokuGeometry.CLASSIC, 1);
+        generator.setTargetClues(clues);
+        List<PackedBoard> puzzles = generator.generate(PUZZLES, 42);
+        givens = new byte[PUZZLES * CELLS];
+        solutions = new byte[PUZZLES * CELLS];
+        for (int p = 0; p < PUZZLES; p++) {
+            for (int cell = 0; cell < CELLS; cell++) {
+                givens[p * CELLS + cell] = (byte) puzzles.get(p).get(cell);
+            }
+        }
+        board = new PackedBoard(SudokuGeometry.CLASSIC);
+        constraintSolver = new ConstraintProgrammingSudokuSolver(board);
+        scalarSolver = new MultiPuzzleSolver(new ScalarPropagationKernel());
+        vectorSolver = new MultiPuzzleSolver(MultiPuzzleSolver.defaultKernel());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PUZZLES)
+    public int constraintProgramming() {
+        int solved = 0;
+        for (int p = 0; p < PUZZLES; p++) {
+            board.reset(givens, p * CELLS);
+            constraintSolver.reset(board);
+            if (constraintSolver.trySolve().isSolved()) solved++;
+        }
+        return solved;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PUZZLES)
+    public int scalarLanes() {
+        return scalarSolver.solve(givens, PUZZLES, solutions);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PUZZLES)
+    public int vectorLanes() {
+        return vectorSolver.solve(givens, PUZZLES, solutions);
+    }
+}
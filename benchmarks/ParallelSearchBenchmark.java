@@ -0,0 +1,51 @@
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Speedup of the fork/join search over thread counts; threads = 1 is the baseline
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelSearchBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    // The 9x9 sets from PuzzleSets, or "16x16" for seeded half-blank 16x16 puzzles
+    @Param({"hard", "seventeen", "16x16"})
+    public String set;
+
+    private int[][][] puzzles;
+
+    @Setup
+    public void load() {
+        if (set.equals("16x16")) {
+            Random random = new Random(42);
+            puzzles = new int[3][][];
+            for (int p = 0; p < puzzles.length; p++) {
+                puzzles[p] = LargeBoardBenchmark.generatePuzzle(SudokuGeometry.of(4, 4), random);
+            }
+        } else {
+            puzzles = PuzzleSets.get(set);
+        }
+    }
+
+    @Benchmark
+    public void constraintProgramming(Blackhole blackhole) {
+        for (int[][] puzzle : puzzles) {
+            blackhole.consume(new ConstraintProgrammingSudokuSolver(puzzle).solveParallel(threads));
+        }
+    }
+
+    @Benchmark
+    public void relationResidual(Blackhole blackhole) {
+        for (int[][] puzzle : puzzles) {
+            blackhole.consume(new RelationResidualSudokuSolver(puzzle).solveParallel(threads));
+        }
+    }
+}
@@ -0,0 +1,52 @@
+import java.util.*;
+
+// Curated 9x9 puzzles for the benchmarks, one 81-character line each with 0 for blanks
+public final class PuzzleSets {
+
+    private static final Map<String, String[]> SETS = new LinkedHashMap<>();
+
+    static {
+        SETS.put("easy", new String[]{
+                "400175002200369700000008090531007904820094600000003000060000300000030000004000061",
+                "003020600900305001001806400008102900700000008006708200002609500800203009005010300",
+                "000260701680070090190004500820100040004602900050003028009300074040050036703018000"
+        });
+        SETS.put("medium", new String[]{
+                "030050040008010500460000012070502080000603000040109030250000098001020600080060020",
+                "000000907000420180000705026100904000050000040000507009920108000034059000507000000",
+                "100920000524010000000000070050008102000000000402700090060000000000030945000071006"
+        });
+        SETS.put("hard", new String[]{
+                "800000000003600000070090200050007000000045700000100030001000068008500010090000400",
+                "520006000000000701300000000000400800600000050000000000041800000000030020008700000",
+                "600000803040700000000000000000504070300200000106000000020000050000080600000010000"
+        });
+        SETS.put("seventeen", new String[]{
+                "000000010400000000020000000000050407008000300001090000300400200050100000000806000",
+                "000000010400000000020000000000050604008000300001090000300400200050100000000807000",
+                "000000012000035000000600070700000300000400800100000000000120000080000040050000600",
+                "400000805030000000000700000020000060000080400000010000000603070500200000104000000"
+        });
+    }
+
+    private PuzzleSets() {
+    }
+
+    public static int[][][] get(String name) {
+        String[] lines = SETS.get(name);
+        if (lines == null) throw new IllegalArgumentException("Unknown puzzle set " + name);
+        int[][][] puzzles = new int[lines.length][][];
+        for (int p = 0; p < lines.length; p++) {
+            puzzles[p] = parse(lines[p]);
+        }
+        return puzzles;
+    }
+
+    public static int[][] parse(String line) {
+        int[][] grid = new int[9][9];
+        for (int cell = 0; cell < 81; cell++) {
+            grid[cell / 9][cell % 9] = line.charAt(cell) - '0';
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+// Per-puzzle setup: a fresh solver from an int[][] grid against resetting one solver from
+// a PackedBoard, cycling through the medium set. Run with the GC profiler to see the
+// allocation difference.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SetupBenchmark {
+
+    private int[][][] grids;
+    private PackedBoard[] packed;
+    private int next;
+
+    private DancingLinksSudokuSolver dancingLinksSolver;
+    private ConstraintProgrammingSudokuSolver constraintSolver;
+    private RelationResidualSudokuSolver relationSolver;
+
+    @Setup
+    public void setUp() {
+        grids = PuzzleSets.get("medium");
+        packed = new PackedBoard[grids.length];
+        for (int p = 0; p < grids.length; p++) {
+            packed[p] = new PackedBoard(grids[p]);
+        }
+        dancingLinksSolver = new DancingLinksSudokuSolver(packed[0]);
+        constraintSolver = new ConstraintProgrammingSudokuSolver(packed[0]);
+        relationSolver = new RelationResidualSudokuSolver(packed[0]);
+    }
+
+    private int nextPuzzle() {
+        next = next + 1 == grids.length ? 0 : next + 1;
+        return next;
+    }
+
+    @Benchmark
+    public Object newDancingLinks() {
+        return new DancingLinksSudokuSolver(grids[nextPuzzle()]);
+    }
+
+    @Benchmark
+    public Object resetDancingLinks() {
+        dancingLinksSolver.reset(packed[nextPuzzle()]);
+        return dancingLinksSolver;
+    }
+
+    @Benchmark
+    public Object newConstraintProgramming() {
+        return new ConstraintProgrammingSudokuSolver(grids[nextPuzzle()]);
+    }
+
+    @Benchmark
+    public Object resetConstraintProgramming() {
+        constraintSolver.reset(packed[nextPuzzle()]);
+        return constraintSolver;
+    }
+
+    @Benchmark
+    public Object newRelationResidual() {
+        return new RelationResidualSudokuSolver(grids[nextPuzzle()]);
+    }
+
+    @Benchmark
+    public Object resetRelationResidual() {
+        relationSolver.reset(packed[nextPuzzle()]);
+        return relationSolver;
+    }
+}
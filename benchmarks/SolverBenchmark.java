@@ -0,0 +1,46 @@
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Whole solves, construction included, over one puzzle set per call. trySolve() keeps
+// the result files and console output of solve() out of the measurement.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolverBenchmark {
+
+    @Param({"easy", "medium", "hard", "seventeen"})
+    public String set;
+
+    private int[][][] puzzles;
+
+    @Setup
+    public void load() {
+        puzzles = PuzzleSets.get(set);
+    }
+
+    @Benchmark
+    public void constraintProgramming(Blackhole blackhole) {
+        for (int[][] puzzle : puzzles) {
+            blackhole.consume(new ConstraintProgrammingSudokuSolver(puzzle).trySolve());
+        }
+    }
+
+    @Benchmark
+    public void relationResidual(Blackhole blackhole) {
+        for (int[][] puzzle : puzzles) {
+            blackhole.consume(new RelationResidualSudokuSolver(puzzle).trySolve());
+        }
+    }
+
+    @Benchmark
+    public void stochastic(Blackhole blackhole) {
+        for (int[][] puzzle : puzzles) {
+            blackhole.consume(new StochasticSudokuSolver(puzzle).trySolve());
+        }
+    }
+}
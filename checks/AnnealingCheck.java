@@ -0,0 +1,45 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Parallel chains return a valid solution, or false with a budget status when none gets there,
+// and schedules reject settings the annealer cannot run with
+public class AnnealingCheck {
+
+    public static void main(String[] args) throws Exception {
+        // On success solveParallel prints and writes its files like solve(); remove any it leaves
+        List<Path> written = List.of(Path.of("stochastic_solution.txt"), Path.of("stochastic_steps.txt"));
+        boolean existed = Files.exists(written.get(0)) || Files.exists(written.get(1));
+        try {
+            int[][] puzzle = Check.grid(Check.PUZZLES[0]);
+            StochasticSudokuSolver solver = new StochasticSudokuSolver(puzzle, AnnealingSchedule.DEFAULT, 7);
+            Check.that(solver.solveParallel(4), "no chain solved an easy puzzle");
+            Check.that(solver.getStatus() == SolveStatus.SOLVED, "parallel status " + solver.getStatus());
+            Check.that(SudokuBoard.isSolution(puzzle, solver.getSolution()), "parallel solution is not valid");
+        } finally {
+            if (!existed) {
+                for (Path path : written) Files.deleteIfExists(path);
+            }
+        }
+
+        StochasticSudokuSolver stalled = new StochasticSudokuSolver(Check.grid(Check.UNIQUE), AnnealingSchedule.DEFAULT, 7);
+        stalled.setBudget(SearchBudget.ofNodes(2000));
+        Check.that(!stalled.solveParallel(3), "chains solved the hard puzzle in 2000 steps");
+        Check.that(stalled.getStatus() == SolveStatus.BUDGET_EXCEEDED, "stalled status " + stalled.getStatus());
+
+        rejects(() -> new AnnealingSchedule(0, 0.99, 0.05, 100, 1, 100), "zero temperature");
+        rejects(() -> new AnnealingSchedule(1, 1.5, 0.05, 100, 1, 100), "cooling rate above 1");
+        rejects(() -> new AnnealingSchedule(1, 0.99, 0.05, 0, 1, 100), "no reheat interval");
+        rejects(() -> new AnnealingSchedule(1, 0.99, 0.05, 100, 1, 0), "no steps");
+        System.out.println("AnnealingCheck passed");
+    }
+
+    private static void rejects(Runnable construct, String what) {
+        try {
+            construct.run();
+        } catch (IllegalArgumentException expected) {
+            return;
+        }
+        throw new AssertionError("schedule accepted " + what);
+    }
+}
@@ -0,0 +1,65 @@
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// BatchSudokuSolver end to end: one output line per input line, in input order, with '.'
+// blanks and CRLF accepted, and a line of zeros for malformed or unsolvable puzzles
+public class BatchCheck {
+
+    public static void main(String[] args) throws Exception {
+        List<String> puzzles = new ArrayList<>();
+        for (int copy = 0; copy < 300; copy++) { // more than one chunk of 1024
+            for (String line : Check.PUZZLES) puzzles.add(line);
+        }
+        puzzles.add(Check.UNIQUE.replace('0', '.'));
+        puzzles.add("12345");
+        int[][] broken = Check.grid(Check.UNIQUE);
+        broken[0][1] = 8;
+        puzzles.add(line(broken));
+
+        Path input = Files.createTempFile("batch-check", ".txt");
+        Path output = Files.createTempFile("batch-check", ".out");
+        try {
+            Files.writeString(input, String.join("\r\n", puzzles), StandardCharsets.US_ASCII);
+            BatchSudokuSolver batch = new BatchSudokuSolver(2);
+            batch.solveFile(input.toString(), output.toString());
+            check(puzzles, Files.readAllLines(output), batch);
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+        System.out.println("BatchCheck passed");
+    }
+
+    // Each output line is the DLX solution of its input line, or zeros
+    static void check(List<String> puzzles, List<String> solutions, BatchSudokuSolver batch) {
+        Check.equal(puzzles.size(), solutions.size(), "output lines");
+        Check.equal(puzzles.size(), batch.getPuzzles(), "puzzles counted");
+        Map<String, String> expectedLines = new HashMap<>();
+        int solved = 0;
+        for (int p = 0; p < puzzles.size(); p++) {
+            String expected = expectedLines.computeIfAbsent(puzzles.get(p), BatchCheck::expected);
+            if (!expected.startsWith("0")) solved++;
+            Check.that(expected.equals(solutions.get(p)), "line " + p + ": " + solutions.get(p));
+        }
+        Check.equal(solved, batch.getSolved(), "puzzles solved");
+    }
+
+    private static String expected(String puzzle) {
+        if (puzzle.length() != 81) return "0".repeat(81);
+        int[][] solution = new DancingLinksSudokuSolver(Check.grid(puzzle.replace('.', '0'))).trySolve().getSolution();
+        return solution == null ? "0".repeat(81) : line(solution);
+    }
+
+    static String line(int[][] grid) {
+        StringBuilder line = new StringBuilder(81);
+        for (int[] row : grid) {
+            for (int num : row) line.append(num);
+        }
+        return line.toString();
+    }
+}
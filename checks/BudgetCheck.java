@@ -0,0 +1,62 @@
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Every solver stops within its node budget and says so, clocks stop runaway searches, and
+// work that ran out of budget is neither cached nor written as a solution
+public class BudgetCheck {
+
+    public static void main(String[] args) throws Exception {
+        int[][] hard = Check.grid(Check.UNIQUE);
+        for (long nodes : new long[]{1, 10, 30}) {
+            List<SudokuSolver> solvers = List.of(new DancingLinksSudokuSolver(hard),
+                    new ConstraintProgrammingSudokuSolver(hard), new RelationResidualSudokuSolver(hard),
+                    new BacktrackingSudokuSolver(hard, 1), new StochasticSudokuSolver(hard, AnnealingSchedule.DEFAULT, 1));
+            for (SudokuSolver solver : solvers) {
+                solver.setBudget(SearchBudget.ofNodes(nodes));
+                SolveResult result = solver.trySolve();
+                Check.that(result.getStatus() == SolveStatus.BUDGET_EXCEEDED, solver.name() + " reported " + result.getStatus());
+                Check.that(result.getSolution() == null, solver.name() + " returned a grid over budget");
+                Check.that(result.getNodesVisited() <= nodes,
+                        solver.name() + " visited " + result.getNodesVisited() + " nodes on a budget of " + nodes);
+            }
+        }
+
+        BacktrackingSudokuSolver slow = new BacktrackingSudokuSolver(hard, 1);
+        slow.setBudget(SearchBudget.ofTime(50, TimeUnit.MILLISECONDS));
+        long start = System.nanoTime();
+        Check.that(slow.trySolve().getStatus() == SolveStatus.BUDGET_EXCEEDED, "backtracker beat a 50 ms clock");
+        Check.that(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2), "the clock did not stop the backtracker");
+
+        DancingLinksSudokuSolver counter = new DancingLinksSudokuSolver(Check.grid(Check.AMBIGUOUS));
+        counter.setBudget(SearchBudget.ofNodes(5));
+        counter.countSolutions(Long.MAX_VALUE);
+        Check.that(counter.getStatus() == SolveStatus.BUDGET_EXCEEDED, "a cut-short count reported " + counter.getStatus());
+
+        SolutionCache cache = new SolutionCache(64);
+        Check.that(cache.solve(hard, SearchBudget.ofNodes(5)).getStatus() == SolveStatus.BUDGET_EXCEEDED,
+                "cache miss over budget");
+        Check.equal(0, cache.size(), "entries after an over-budget miss");
+        Check.that(cache.solve(hard, SearchBudget.UNLIMITED).isSolved(), "cache miss without a budget");
+        Check.equal(1, cache.size(), "entries after a solved miss");
+
+        Path input = Files.createTempFile("budget-check", ".txt");
+        Path output = Files.createTempFile("budget-check", ".out");
+        try {
+            Files.writeString(input, Check.UNIQUE + "\n" + Check.PUZZLES[0] + "\n", StandardCharsets.US_ASCII);
+            BatchSudokuSolver batch = new BatchSudokuSolver(1, new SolutionCache(64));
+            batch.setBudget(SearchBudget.ofNodes(60));
+            batch.solveFile(input.toString(), output.toString());
+            List<String> lines = Files.readAllLines(output);
+            Check.that(lines.get(0).equals("0".repeat(81)), "an over-budget puzzle was written as solved");
+            Check.equal(1, batch.getOverBudget(), "puzzles over budget");
+            Check.equal(1, batch.getSolved(), "puzzles solved");
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(output);
+        }
+        System.out.println("BudgetCheck passed");
+    }
+}
@@ -0,0 +1,45 @@
+import java.util.*;
+
+// Assertions and puzzles shared by the self-checks in this directory. Each check class has a
+// main that throws on the first failure; RunChecks runs all of them.
+final class Check {
+
+    // A 9x9 puzzle with a unique solution, and one with a few givens dropped that has
+    // millions of solutions
+    static final String UNIQUE = "800000000003600000070090200050007000000045700000100030001000068008500010090000400";
+    static final String AMBIGUOUS = "000000000003600000070090200050007000000045700000100030001000068008500010090000400";
+
+    // A few more unique 9x9 puzzles, easy to 17-clue
+    static final String[] PUZZLES = {
+            "003020600900305001001806400008102900700000008006708200002609500800203009005010300",
+            "030050040008010500460000012070502080000603000040109030250000098001020600080060020",
+            "520006000000000701300000000000400800600000050000000000041800000000030020008700000",
+            "000000010400000000020000000000050407008000300001090000300400200050100000000806000"
+    };
+
+    private Check() {
+    }
+
+    static void that(boolean condition, String what) {
+        if (!condition) throw new AssertionError(what);
+    }
+
+    static void equal(long expected, long actual, String what) {
+        if (expected != actual) throw new AssertionError(what + ": expected " + expected + ", got " + actual);
+    }
+
+    // One 81-character line with 0 for blanks
+    static int[][] grid(String line) {
+        int[][] grid = new int[9][9];
+        for (int cell = 0; cell < 81; cell++) {
+            grid[cell / 9][cell % 9] = line.charAt(cell) - '0';
+        }
+        return grid;
+    }
+
+    static int[][] copy(int[][] grid) {
+        int[][] copy = new int[grid.length][];
+        for (int i = 0; i < grid.length; i++) copy[i] = grid[i].clone();
+        return copy;
+    }
+}
@@ -0,0 +1,93 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// A search paused by its budget, saved and resumed from file again and again ends with the
+// same solution or count as an uninterrupted run
+public class CheckpointCheck {
+
+    public static void main(String[] args) throws Exception {
+        Path file = Files.createTempFile("checkpoint-check", ".txt");
+        try {
+            int[][] hard = Check.grid(Check.UNIQUE);
+            SolveResult whole = new RelationResidualSudokuSolver(hard).trySolve();
+            RelationResidualSudokuSolver residual = new RelationResidualSudokuSolver(hard);
+            residual.setBudget(SearchBudget.ofNodes(1000));
+            SolveResult part = residual.trySolve();
+            int pauses = 0;
+            while (part.getStatus() == SolveStatus.BUDGET_EXCEEDED) {
+                // A resume that started over would never get past the first budget's worth of nodes
+                Check.that(++pauses <= 2 * whole.getNodesVisited() / 1000, "RR is not getting anywhere");
+                residual.saveCheckpoint(file);
+                residual = RelationResidualSudokuSolver.resumeFrom(file);
+                residual.setBudget(SearchBudget.ofNodes(1000));
+                part = residual.trySolve();
+            }
+            // The residual queue is rebuilt on resume, so cells tied on candidates and peers may
+            // come out in another order than in the uninterrupted run; the answer is the same
+            same("RR", whole, part);
+
+            whole = new ConstraintProgrammingSudokuSolver(hard).trySolve();
+            ConstraintProgrammingSudokuSolver constraint = new ConstraintProgrammingSudokuSolver(hard);
+            constraint.setBudget(SearchBudget.ofNodes(5));
+            part = constraint.trySolve();
+            long nodes = part.getNodesVisited();
+            while (part.getStatus() == SolveStatus.BUDGET_EXCEEDED) {
+                constraint.saveCheckpoint(file);
+                constraint = ConstraintProgrammingSudokuSolver.resumeFrom(file);
+                constraint.setBudget(SearchBudget.ofNodes(5));
+                part = constraint.trySolve();
+                nodes += part.getNodesVisited();
+            }
+            same("CP", whole, part);
+            Check.equal(whole.getNodesVisited(), nodes, "CP nodes across checkpoints");
+
+            // Counting resumes too, keeping the solutions found before each pause
+            int[][] loose = Check.grid(Check.AMBIGUOUS);
+            for (int cell = 20; cell < 23; cell++) loose[cell / 9][cell % 9] = 0;
+            constraint = new ConstraintProgrammingSudokuSolver(loose);
+            long count = constraint.countSolutions(Long.MAX_VALUE);
+            long wholeNodes = constraint.getMetrics().getNodesVisited();
+            constraint = new ConstraintProgrammingSudokuSolver(loose);
+            constraint.setBudget(SearchBudget.ofNodes(5000));
+            long counted = constraint.countSolutions(Long.MAX_VALUE);
+            nodes = constraint.getMetrics().getNodesVisited();
+            pauses = 0;
+            while (constraint.getStatus() == SolveStatus.BUDGET_EXCEEDED) {
+                constraint.saveCheckpoint(file);
+                constraint = ConstraintProgrammingSudokuSolver.resumeFrom(file);
+                constraint.setBudget(SearchBudget.ofNodes(5000));
+                counted = constraint.countSolutions(Long.MAX_VALUE);
+                nodes += constraint.getMetrics().getNodesVisited();
+                pauses++;
+            }
+            Check.that(pauses > 1, "the count never paused");
+            Check.equal(count, counted, "solutions counted across checkpoints");
+            Check.equal(wholeNodes, nodes, "nodes of the count across checkpoints");
+
+            try {
+                new RelationResidualSudokuSolver(hard).saveCheckpoint(file);
+                throw new AssertionError("a solver that never paused wrote a checkpoint");
+            } catch (IllegalStateException expected) {
+            }
+            constraint = new ConstraintProgrammingSudokuSolver(hard);
+            constraint.setBudget(SearchBudget.ofNodes(5));
+            constraint.trySolve();
+            constraint.saveCheckpoint(file);
+            try {
+                RelationResidualSudokuSolver.resumeFrom(file);
+                throw new AssertionError("RR resumed a CP checkpoint");
+            } catch (IOException expected) {
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+        System.out.println("CheckpointCheck passed");
+    }
+
+    private static void same(String what, SolveResult whole, SolveResult last) {
+        Check.that(last.isSolved(), what + " ended " + last.getStatus());
+        Check.that(Arrays.deepEquals(whole.getSolution(), last.getSolution()), what + " resumed to another solution");
+    }
+}
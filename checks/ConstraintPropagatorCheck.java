@@ -0,0 +1,53 @@
+import java.util.Arrays;
+
+// ConstraintPropagator is sound and undoes exactly: propagation never removes a digit of the
+// known solution nor fills a cell wrongly, and undo to a mark restores every candidate mask
+public class ConstraintPropagatorCheck {
+
+    public static void main(String[] args) {
+        for (String line : Check.PUZZLES) {
+            int[][] puzzle = Check.grid(line);
+            int[][] solution = new DancingLinksSudokuSolver(puzzle).trySolve().getSolution();
+            SudokuBoard board = new SudokuBoard(puzzle);
+            ConstraintPropagator propagator = new ConstraintPropagator(board);
+            Check.that(propagator.propagate(), "contradiction on a solvable puzzle");
+            checkSound(board, propagator, solution, line);
+
+            // Branch on the most constrained cell with each candidate, undoing in between
+            int cell = propagator.mostConstrainedCell();
+            if (cell < 0) continue;
+            long[] before = snapshot(propagator);
+            int mark = propagator.mark();
+            for (long mask = propagator.candidates(cell); mask != 0; mask &= mask - 1) {
+                int num = Long.numberOfTrailingZeros(mask) + 1;
+                boolean consistent = propagator.assign(cell, num);
+                if (num == solution[cell / 9][cell % 9]) {
+                    Check.that(consistent, "contradiction on the solution's digit");
+                    checkSound(board, propagator, solution, line);
+                }
+                propagator.undo(mark);
+                Check.that(Arrays.equals(before, snapshot(propagator)), "undo left other masks: " + line);
+                Check.that(board.isEmpty(cell / 9, cell % 9), "undo left the branch cell filled");
+            }
+        }
+        System.out.println("ConstraintPropagatorCheck passed");
+    }
+
+    private static void checkSound(SudokuBoard board, ConstraintPropagator propagator, int[][] solution, String line) {
+        for (int cell = 0; cell < 81; cell++) {
+            int row = cell / 9, col = cell % 9;
+            if (board.isEmpty(row, col)) {
+                Check.that((propagator.candidates(cell) & 1L << (solution[row][col] - 1)) != 0,
+                        "solution digit eliminated at " + cell + ": " + line);
+            } else {
+                Check.equal(solution[row][col], board.get(row, col), "wrong fill at " + cell + ": " + line);
+            }
+        }
+    }
+
+    private static long[] snapshot(ConstraintPropagator propagator) {
+        long[] masks = new long[81];
+        for (int cell = 0; cell < 81; cell++) masks[cell] = propagator.candidates(cell);
+        return masks;
+    }
+}
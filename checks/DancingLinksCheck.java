@@ -0,0 +1,26 @@
+// Solution counting on DancingLinksSudokuSolver, including on an instance that has already
+// solved: the matrix must be back at the givens before the count starts
+public class DancingLinksCheck {
+
+    public static void main(String[] args) throws Exception {
+        DancingLinksSudokuSolver unique = new DancingLinksSudokuSolver(Check.grid(Check.UNIQUE));
+        Check.equal(1, unique.countSolutions(2), "count of a unique puzzle");
+        Check.that(unique.hasUniqueSolution(), "unique puzzle reported ambiguous");
+
+        int[][] ambiguous = Check.grid(Check.AMBIGUOUS);
+        DancingLinksSudokuSolver solver = new DancingLinksSudokuSolver(ambiguous);
+        Check.equal(2, solver.countSolutions(2), "count before solving");
+        Check.that(solver.trySolve().isSolved(), "ambiguous puzzle not solved");
+        Check.that(SudokuBoard.isSolution(ambiguous, solver.getSolution()), "solution breaks the givens");
+        Check.equal(2, solver.countSolutions(2), "count after trySolve");
+        Check.that(!solver.hasUniqueSolution(), "ambiguous puzzle reported unique after solving");
+        Check.that(solver.findSolution() != null, "findSolution after counting");
+        Check.equal(2, solver.countSolutions(2), "count after findSolution");
+        Check.equal(2, solver.countSolutionsParallel(2, 2), "parallel count after solving");
+
+        int[][] broken = Check.grid(Check.UNIQUE);
+        broken[0][1] = 8;
+        Check.equal(0, new DancingLinksSudokuSolver(broken).countSolutions(2), "count of clashing givens");
+        System.out.println("DancingLinksCheck passed");
+    }
+}
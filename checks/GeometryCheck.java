@@ -0,0 +1,68 @@
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Every geometry's units and peers match their definition, and the exact solvers solve boards
+// of each shape, including the non-square 6x6
+public class GeometryCheck {
+
+    public static void main(String[] args) {
+        for (SudokuGeometry geometry : List.of(SudokuGeometry.of(2, 3), SudokuGeometry.CLASSIC,
+                SudokuGeometry.of(4, 4), SudokuGeometry.of(5, 5))) {
+            layout(geometry);
+            Check.that(SudokuGeometry.forSize(geometry.size) == geometry, "forSize(" + geometry.size + ") picked another box");
+
+            Random random = new Random(geometry.size);
+            for (int i = 0; i < 2; i++) {
+                int[][] puzzle = LargeBoardBenchmark.generatePuzzle(geometry, random);
+                List<SudokuSolver> solvers = new ArrayList<>(List.of(new DancingLinksSudokuSolver(puzzle),
+                        new ConstraintProgrammingSudokuSolver(puzzle)));
+                // Without propagation the residual search takes minutes on 25x25 boards
+                if (geometry.size <= 16) solvers.add(new RelationResidualSudokuSolver(puzzle));
+                for (SudokuSolver solver : solvers) {
+                    SolveResult result = solver.trySolve();
+                    Check.that(result.isSolved() && SudokuBoard.isSolution(puzzle, result.getSolution()),
+                            solver.name() + " failed on a " + geometry.size + "x" + geometry.size + " board");
+                }
+            }
+        }
+        try {
+            SudokuGeometry.of(8, 9);
+            throw new AssertionError("a 72x72 geometry was accepted");
+        } catch (IllegalArgumentException expected) {
+        }
+        System.out.println("GeometryCheck passed");
+    }
+
+    // Compares units, boxes and peers with a direct reading of the rules
+    private static void layout(SudokuGeometry geometry) {
+        int size = geometry.size;
+        for (int unit = 0; unit < geometry.units; unit++) {
+            Set<Integer> cells = new HashSet<>();
+            for (int cell : geometry.unit(unit)) {
+                int row = cell / size, col = cell % size;
+                int box = row / geometry.boxRows * geometry.boxRows + col / geometry.boxCols;
+                int expected = unit < size ? row : unit < 2 * size ? size + col : 2 * size + box;
+                Check.equal(expected, unit, "unit of cell " + cell + " in " + size + "x" + size);
+                Check.equal(box, geometry.boxOf(cell), "box of cell " + cell);
+                cells.add(cell);
+            }
+            Check.equal(size, cells.size(), "distinct cells of unit " + unit);
+        }
+        for (int cell = 0; cell < geometry.cells; cell++) {
+            Set<Integer> peers = new HashSet<>();
+            for (int other = 0; other < geometry.cells; other++) {
+                if (other != cell && (other / size == cell / size || other % size == cell % size
+                        || geometry.boxOf(other) == geometry.boxOf(cell))) {
+                    peers.add(other);
+                }
+            }
+            Set<Integer> actual = new HashSet<>();
+            for (int peer : geometry.peers(cell)) actual.add(peer);
+            Check.that(actual.equals(peers) && geometry.peers(cell).length == peers.size(),
+                    "peers of cell " + cell + " in " + size + "x" + size);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+// The inner-loop methods the benchmarks time give the answers their callers rely on
+public class HotMethodCheck {
+
+    public static void main(String[] args) {
+        for (String line : Check.PUZZLES) {
+            int[][] puzzle = Check.grid(line);
+            SudokuBoard board = new SudokuBoard(puzzle);
+            ConstraintProgrammingSudokuSolver constraintSolver = new ConstraintProgrammingSudokuSolver(puzzle);
+            for (int cell = 0; cell < 81; cell++) {
+                int row = cell / 9, col = cell % 9;
+                if (puzzle[row][col] != 0) continue;
+                int valid = 0;
+                for (int num = 1; num <= 9; num++) {
+                    if (board.isValid(row, col, num)) valid++;
+                }
+                // Propagation may only narrow what the givens alone allow, never empty a cell
+                int count = constraintSolver.countValidValues(row, col);
+                Check.that(count >= 1 && count <= valid, "countValidValues " + count + " at cell " + cell + ", " + valid + " valid");
+            }
+
+            StochasticSudokuSolver stochasticSolver = new StochasticSudokuSolver(puzzle, AnnealingSchedule.DEFAULT, 5);
+            stochasticSolver.fillRandomInBlocks();
+            int[][] filled = stochasticSolver.getSolution();
+            int missing = 0;
+            for (int unit = 0; unit < 27; unit++) {
+                boolean[] seen = new boolean[10];
+                for (int cell : SudokuGeometry.CLASSIC.unit(unit)) seen[filled[cell / 9][cell % 9]] = true;
+                int absent = 0;
+                for (int num = 1; num <= 9; num++) {
+                    if (!seen[num]) absent++;
+                }
+                if (unit < 18) {
+                    missing += absent;
+                } else {
+                    Check.equal(0, absent, "the fill left a digit out of box " + (unit - 18));
+                }
+            }
+            for (int cell = 0; cell < 81; cell++) {
+                int given = puzzle[cell / 9][cell % 9];
+                Check.that(given == 0 || filled[cell / 9][cell % 9] == given, "the fill moved a given");
+            }
+            Check.equal(missing, stochasticSolver.computeConflicts(), "computeConflicts");
+        }
+        System.out.println("HotMethodCheck passed");
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// The default lane kernel (the Vector API one when it is loaded) matches the scalar kernel
+// sweep for sweep, and MultiPuzzleSolver's answers are the dancing-links ones with either
+public class KernelCheck {
+
+    private static final int LANES = MultiPuzzleSolver.LANES;
+
+    public static void main(String[] args) {
+        Random random = new Random(25);
+        int count = 3 * LANES + 17; // a partial last batch
+        byte[] givens = new byte[count * 81];
+        for (int p = 0; p < count; p++) {
+            int[][] puzzle = p % 5 == 0 ? Check.grid(Check.PUZZLES[p / 5 % Check.PUZZLES.length])
+                    : LargeBoardBenchmark.generatePuzzle(SudokuGeometry.CLASSIC, random);
+            if (p % 29 == 0) puzzle[0][1] = puzzle[0][0] = 8; // clashing givens
+            for (int cell = 0; cell < 81; cell++) givens[p * 81 + cell] = (byte) puzzle[cell / 9][cell % 9];
+        }
+
+        LanePropagationKernel scalar = new ScalarPropagationKernel();
+        LanePropagationKernel chosen = MultiPuzzleSolver.defaultKernel();
+        if (chosen instanceof ScalarPropagationKernel) {
+            System.out.println("KernelCheck: vector kernel not loaded, checking the scalar kernel only");
+        }
+        for (int first = 0; first + LANES <= count; first += LANES) {
+            Lanes expected = new Lanes(givens, first), actual = new Lanes(givens, first);
+            boolean changed = true;
+            for (int sweep = 0; changed; sweep++) {
+                changed = scalar.sweep(LANES, expected.open, expected.digit, expected.used, expected.dead);
+                boolean other = chosen.sweep(LANES, actual.open, actual.digit, actual.used, actual.dead);
+                Check.that(changed == other, "kernels disagree on whether sweep " + sweep + " changed anything");
+                Check.that(expected.equals(actual), "kernels disagree after sweep " + sweep + " of batch " + first / LANES);
+            }
+        }
+
+        byte[] withScalar = new byte[givens.length];
+        byte[] withDefault = new byte[givens.length];
+        int solved = new MultiPuzzleSolver(scalar).solve(givens, count, withScalar);
+        Check.equal(solved, new MultiPuzzleSolver().solve(givens, count, withDefault), "puzzles solved by each kernel");
+        Check.that(Arrays.equals(withScalar, withDefault), "kernels led to different solutions");
+        int expectedSolved = 0;
+        for (int p = 0; p < count; p++) {
+            int[][] puzzle = new int[9][9], solution = new int[9][9];
+            for (int cell = 0; cell < 81; cell++) {
+                puzzle[cell / 9][cell % 9] = givens[p * 81 + cell];
+                solution[cell / 9][cell % 9] = withScalar[p * 81 + cell];
+            }
+            SolveResult reference = new DancingLinksSudokuSolver(puzzle).trySolve();
+            if (reference.isSolved()) {
+                expectedSolved++;
+                Check.that(SudokuBoard.isSolution(puzzle, solution), "puzzle " + p + " got a wrong solution");
+            } else {
+                Check.that(Arrays.deepEquals(new int[9][9], solution), "unsolvable puzzle " + p + " was not left as zeros");
+            }
+        }
+        Check.equal(expectedSolved, solved, "puzzles solved");
+        System.out.println("KernelCheck passed");
+    }
+
+    // A batch in the kernels' lane layout, loaded as MultiPuzzleSolver does
+    private static final class Lanes {
+        final int[] open = new int[81 * LANES];
+        final int[] digit = new int[81 * LANES];
+        final int[] used = new int[27 * LANES];
+        final int[] dead = new int[LANES];
+
+        Lanes(byte[] givens, int first) {
+            for (int cell = 0; cell < 81; cell++) {
+                int[] units = {cell / 9, 9 + cell % 9, 18 + SudokuGeometry.CLASSIC.boxOf(cell)};
+                for (int lane = 0; lane < LANES; lane++) {
+                    int num = givens[(first + lane) * 81 + cell];
+                    if (num == 0) {
+                        open[cell * LANES + lane] = 0x1FF;
+                        continue;
+                    }
+                    int bit = 1 << (num - 1);
+                    for (int unit : units) {
+                        if ((used[unit * LANES + lane] & bit) != 0) dead[lane] = 1;
+                        used[unit * LANES + lane] |= bit;
+                    }
+                    digit[cell * LANES + lane] = bit;
+                }
+            }
+        }
+
+        boolean equals(Lanes other) {
+            return Arrays.equals(open, other.open) && Arrays.equals(digit, other.digit)
+                    && Arrays.equals(used, other.used) && Arrays.equals(dead, other.dead);
+        }
+    }
+}
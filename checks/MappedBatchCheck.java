@@ -0,0 +1,43 @@
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// solveMapped writes byte for byte what solveFile does, for corpora spanning several
+// segments, with CRLF line ends and no final newline or LF ends and a final newline
+public class MappedBatchCheck {
+
+    public static void main(String[] args) throws Exception {
+        List<String> puzzles = new ArrayList<>();
+        for (int copy = 0; copy < 800; copy++) { // about 270 KB, several 64 KB segments
+            for (String line : Check.PUZZLES) puzzles.add(line);
+        }
+        puzzles.add(Check.UNIQUE.replace('0', '.'));
+        puzzles.add("12345");
+        int[][] broken = Check.grid(Check.UNIQUE);
+        broken[0][1] = 8;
+        puzzles.add(BatchCheck.line(broken));
+
+        Path input = Files.createTempFile("mapped-check", ".txt");
+        Path streamed = Files.createTempFile("mapped-check", ".out");
+        Path mapped = Files.createTempFile("mapped-check", ".map");
+        try {
+            for (String text : List.of(String.join("\r\n", puzzles), String.join("\n", puzzles) + "\n")) {
+                Files.writeString(input, text, StandardCharsets.US_ASCII);
+                new BatchSudokuSolver(2).solveFile(input.toString(), streamed.toString());
+                BatchSudokuSolver batch = new BatchSudokuSolver(2);
+                batch.solveMapped(input.toString(), mapped.toString());
+                BatchCheck.check(puzzles, Files.readAllLines(mapped), batch);
+                Check.that(Arrays.equals(Files.readAllBytes(streamed), Files.readAllBytes(mapped)),
+                        "mapped output differs from streamed output");
+            }
+        } finally {
+            Files.deleteIfExists(input);
+            Files.deleteIfExists(streamed);
+            Files.deleteIfExists(mapped);
+        }
+        System.out.println("MappedBatchCheck passed");
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.Random;
+
+// Through random fills and unfills, best() always names an empty cell with the fewest
+// candidates and, among those, the most unfilled peers, as a scan of the board does
+public class MrvQueueCheck {
+
+    public static void main(String[] args) {
+        for (SudokuGeometry geometry : new SudokuGeometry[]{SudokuGeometry.CLASSIC, SudokuGeometry.of(4, 4)}) {
+            int size = geometry.size;
+            Random random = new Random(size);
+            for (int round = 0; round < 20; round++) {
+                SudokuBoard board = new SudokuBoard(new int[size][size]);
+                long[] masks = new long[geometry.cells];
+                for (int cell = 0; cell < geometry.cells; cell++) masks[cell] = board.candidates(cell / size, cell % size);
+                MrvQueue queue = new MrvQueue(geometry);
+                queue.build(board, masks);
+                compare(geometry, board, queue);
+
+                for (int step = 0; step < 4 * geometry.cells; step++) {
+                    int cell = random.nextInt(geometry.cells), row = cell / size, col = cell % size;
+                    if (board.isEmpty(row, col)) {
+                        long candidates = board.candidates(row, col);
+                        if (candidates == 0 || random.nextInt(4) == 0) continue; // mostly fills, so the board gets full
+                        int pick = random.nextInt(Long.bitCount(candidates));
+                        while (pick-- > 0) candidates &= candidates - 1;
+                        board.place(row, col, Long.numberOfTrailingZeros(candidates) + 1);
+                        queue.fill(cell);
+                    } else {
+                        board.unplace(row, col);
+                        queue.unfill(cell, board.candidates(row, col));
+                    }
+                    for (int peer : geometry.peers(cell)) queue.update(peer, board.candidates(peer / size, peer % size));
+                    compare(geometry, board, queue);
+                }
+            }
+        }
+        System.out.println("MrvQueueCheck passed");
+    }
+
+    private static void compare(SudokuGeometry geometry, SudokuBoard board, MrvQueue queue) {
+        int size = geometry.size;
+        int fewest = Integer.MAX_VALUE, most = -1;
+        for (int cell = 0; cell < geometry.cells; cell++) {
+            if (!board.isEmpty(cell / size, cell % size)) continue;
+            int count = Long.bitCount(board.candidates(cell / size, cell % size));
+            int unfilled = unfilledPeers(geometry, board, cell);
+            if (count < fewest || count == fewest && unfilled > most) {
+                fewest = count;
+                most = unfilled;
+            }
+        }
+        int best = queue.best();
+        if (fewest == Integer.MAX_VALUE) {
+            Check.equal(-1, best, "best() on a full board");
+            return;
+        }
+        Check.that(best >= 0 && board.isEmpty(best / size, best % size), "best() named filled cell " + best);
+        Check.equal(fewest, Long.bitCount(board.candidates(best / size, best % size)), "candidates of best()");
+        // A dead or forced cell is taken without a tie-break
+        if (fewest > 1) Check.equal(most, unfilledPeers(geometry, board, best), "unfilled peers of best()");
+    }
+
+    private static int unfilledPeers(SudokuGeometry geometry, SudokuBoard board, int cell) {
+        int unfilled = 0;
+        for (int peer : geometry.peers(cell)) {
+            if (board.isEmpty(peer / geometry.size, peer % geometry.size)) unfilled++;
+        }
+        return unfilled;
+    }
+}
@@ -0,0 +1,70 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// Every way into a PackedBoard reads back the same grid, and a solver reset onto a puzzle
+// searches exactly as a fresh one built from it
+public class PackedBoardCheck {
+
+    public static void main(String[] args) {
+        PackedBoard packed = new PackedBoard(SudokuGeometry.CLASSIC);
+        byte[] batch = new byte[81 * Check.PUZZLES.length];
+        for (int p = 0; p < Check.PUZZLES.length; p++) {
+            int[][] grid = Check.grid(Check.PUZZLES[p]);
+            Check.that(Arrays.deepEquals(grid, new PackedBoard(grid).toGrid()), "grid round trip");
+            packed.reset(Check.PUZZLES[p].replace('0', '.'));
+            Check.that(Arrays.deepEquals(grid, packed.toGrid()), "line round trip");
+            for (int cell = 0; cell < 81; cell++) batch[81 * p + cell] = (byte) packed.get(cell);
+        }
+        PackedBoard copy = new PackedBoard(SudokuGeometry.CLASSIC);
+        for (int p = 0; p < Check.PUZZLES.length; p++) {
+            packed.reset(batch, 81 * p);
+            Check.that(Arrays.deepEquals(Check.grid(Check.PUZZLES[p]), packed.toGrid()), "batch offset " + 81 * p);
+            copy.reset(packed);
+            Check.that(Arrays.deepEquals(packed.toGrid(), copy.toGrid()), "board copy");
+        }
+        copy.clear();
+        Check.that(Arrays.deepEquals(new int[9][9], copy.toGrid()), "clear left digits behind");
+
+        int[][] large = LargeBoardBenchmark.generatePuzzle(SudokuGeometry.of(5, 5), new Random(25));
+        PackedBoard wide = new PackedBoard(SudokuGeometry.of(5, 5));
+        wide.reset(large);
+        Check.that(Arrays.deepEquals(large, wide.toGrid()), "25x25 round trip");
+        wide.set(624, 25);
+        Check.equal(25, wide.get(624), "largest digit in the last cell");
+
+        // The same solver object walks the batch; each result must match a fresh solver's
+        DancingLinksSudokuSolver dancingLinks = new DancingLinksSudokuSolver(new PackedBoard(SudokuGeometry.CLASSIC));
+        ConstraintProgrammingSudokuSolver constraint = new ConstraintProgrammingSudokuSolver(new PackedBoard(SudokuGeometry.CLASSIC));
+        RelationResidualSudokuSolver residual = new RelationResidualSudokuSolver(new PackedBoard(SudokuGeometry.CLASSIC));
+        BacktrackingSudokuSolver backtracking = new BacktrackingSudokuSolver(new PackedBoard(SudokuGeometry.CLASSIC), 3);
+        for (int round = 0; round < 2; round++) {
+            for (int p = 0; p < Check.PUZZLES.length; p++) {
+                packed.reset(batch, 81 * p);
+                dancingLinks.reset(packed);
+                same(packed, dancingLinks.trySolve(), new DancingLinksSudokuSolver(packed).trySolve());
+                constraint.reset(packed);
+                same(packed, constraint.trySolve(), new ConstraintProgrammingSudokuSolver(packed).trySolve());
+                residual.reset(packed);
+                same(packed, residual.trySolve(), new RelationResidualSudokuSolver(packed).trySolve());
+            }
+        }
+
+        // The backtracker's random sequence carries on across resets, so only its answer is compared
+        int[][] blanked = new DancingLinksSudokuSolver(Check.grid(Check.UNIQUE)).trySolve().getSolution();
+        for (int cell = 0; cell < 81; cell += 3) blanked[cell / 9][cell % 9] = 0;
+        for (int round = 0; round < 3; round++) {
+            packed.reset(blanked);
+            backtracking.reset(packed);
+            Check.that(SudokuBoard.isSolution(blanked, backtracking.trySolve().getSolution()), "backtracker after reset");
+        }
+        System.out.println("PackedBoardCheck passed");
+    }
+
+    private static void same(PackedBoard puzzle, SolveResult reset, SolveResult fresh) {
+        Check.that(reset.isSolved() && SudokuBoard.isSolution(puzzle.toGrid(), reset.getSolution()),
+                reset.getSolver() + " failed after reset");
+        Check.that(Arrays.deepEquals(reset.getSolution(), fresh.getSolution()), reset.getSolver() + " solution after reset");
+        Check.equal(fresh.getNodesVisited(), reset.getNodesVisited(), reset.getSolver() + " nodes after reset");
+        Check.equal(fresh.getPlacements(), reset.getPlacements(), reset.getSolver() + " placements after reset");
+    }
+}
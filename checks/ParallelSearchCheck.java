@@ -0,0 +1,58 @@
+import java.util.Random;
+
+// Fork/join search solves from the givens whatever the solver did before, and one node budget
+// bounds all of its subtasks together
+public class ParallelSearchCheck {
+
+    public static void main(String[] args) {
+        int[][] large = LargeBoardBenchmark.generatePuzzle(SudokuGeometry.of(4, 4), new Random(11));
+        for (int threads = 1; threads <= 4; threads++) {
+            for (String line : Check.PUZZLES) {
+                int[][] puzzle = Check.grid(line);
+                solved("CP", puzzle, new ConstraintProgrammingSudokuSolver(puzzle).solveParallel(threads));
+                solved("RR", puzzle, new RelationResidualSudokuSolver(puzzle).solveParallel(threads));
+            }
+            solved("CP 16x16", large, new ConstraintProgrammingSudokuSolver(large).solveParallel(threads));
+            solved("RR 16x16", large, new RelationResidualSudokuSolver(large).solveParallel(threads));
+        }
+
+        // A solve paused by its budget leaves digits on the board; the parallel search starts over
+        int[][] hard = Check.grid(Check.UNIQUE);
+        ConstraintProgrammingSudokuSolver constraint = new ConstraintProgrammingSudokuSolver(hard);
+        RelationResidualSudokuSolver residual = new RelationResidualSudokuSolver(hard);
+        constraint.setBudget(SearchBudget.ofNodes(10));
+        residual.setBudget(SearchBudget.ofNodes(10));
+        Check.that(constraint.trySolve().getStatus() == SolveStatus.BUDGET_EXCEEDED, "CP finished within 10 nodes");
+        Check.that(residual.trySolve().getStatus() == SolveStatus.BUDGET_EXCEEDED, "RR finished within 10 nodes");
+        constraint.setBudget(SearchBudget.UNLIMITED);
+        residual.setBudget(SearchBudget.UNLIMITED);
+        solved("CP after a pause", hard, constraint.solveParallel(2));
+        solved("RR after a pause", hard, residual.solveParallel(2));
+
+        for (int threads = 2; threads <= 4; threads++) {
+            ConstraintProgrammingSudokuSolver boundedConstraint = new ConstraintProgrammingSudokuSolver(hard);
+            boundedConstraint.setBudget(SearchBudget.ofNodes(20));
+            bounded("CP", boundedConstraint.solveParallel(threads), 20, threads);
+            RelationResidualSudokuSolver boundedResidual = new RelationResidualSudokuSolver(hard);
+            boundedResidual.setBudget(SearchBudget.ofNodes(1000));
+            bounded("RR", boundedResidual.solveParallel(threads), 1000, threads);
+        }
+
+        int[][] broken = Check.grid(Check.UNIQUE);
+        broken[0][1] = 8;
+        Check.that(!new ConstraintProgrammingSudokuSolver(broken).solveParallel(2).isSolved(), "CP solved clashing givens");
+        Check.that(!new RelationResidualSudokuSolver(broken).solveParallel(2).isSolved(), "RR solved clashing givens");
+        System.out.println("ParallelSearchCheck passed");
+    }
+
+    private static void solved(String what, int[][] puzzle, SolveResult result) {
+        Check.that(result.isSolved() && SudokuBoard.isSolution(puzzle, result.getSolution()), what + " parallel solve failed");
+    }
+
+    // Each worker may finish the node it is on once the shared count reaches the limit
+    private static void bounded(String what, SolveResult result, long limit, int threads) {
+        Check.that(result.getStatus() == SolveStatus.BUDGET_EXCEEDED, what + " reported " + result.getStatus());
+        Check.that(result.getNodesVisited() <= limit + threads,
+                what + " visited " + result.getNodesVisited() + " nodes on a budget of " + limit);
+    }
+}
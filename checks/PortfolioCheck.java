@@ -0,0 +1,29 @@
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// The portfolio race returns a verified solution from one of the solvers, and null once
+// every solver has failed on clashing givens within the budget
+public class PortfolioCheck {
+
+    public static void main(String[] args) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        try {
+            for (String line : Check.PUZZLES) {
+                int[][] puzzle = Check.grid(line);
+                SudokuSolverRunner.PortfolioResult result = SudokuSolverRunner.solvePortfolio(puzzle, pool);
+                Check.that(result != null, "race found nothing: " + line);
+                Check.that(SudokuBoard.isSolution(puzzle, result.solution), result.solver + " won with a bad grid");
+                Check.that(result.solver.equals(result.result.getSolver()), "winner name and result disagree");
+            }
+
+            int[][] broken = Check.grid(Check.UNIQUE);
+            broken[0][1] = 8;
+            Check.that(SudokuSolverRunner.solvePortfolio(broken, pool, SearchBudget.ofTime(2, TimeUnit.SECONDS)) == null,
+                    "race on clashing givens returned a winner");
+        } finally {
+            pool.shutdownNow();
+        }
+        System.out.println("PortfolioCheck passed");
+    }
+}
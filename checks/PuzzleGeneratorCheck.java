@@ -0,0 +1,58 @@
+import java.util.Arrays;
+import java.util.List;
+
+// Generated puzzles have exactly one solution, meet the clue and difficulty targets, cannot
+// lose a clue when minimal, and a seed with the same thread count replays them
+public class PuzzleGeneratorCheck {
+
+    public static void main(String[] args) throws Exception {
+        PuzzleGenerator generator = new PuzzleGenerator(SudokuGeometry.CLASSIC, 2);
+        List<PackedBoard> puzzles = generator.generate(12, 42);
+        Check.equal(12, puzzles.size(), "puzzles generated");
+        long clues = 0;
+        for (PackedBoard puzzle : puzzles) {
+            unique(puzzle);
+            int given = 0;
+            for (int cell = 0; cell < 81; cell++) {
+                if (puzzle.get(cell) == 0) continue;
+                given++;
+                // Minimal: every clue left is needed for uniqueness
+                int num = puzzle.get(cell);
+                puzzle.set(cell, 0);
+                Check.equal(2, new DancingLinksSudokuSolver(puzzle).countSolutions(2), "a removable clue at cell " + cell);
+                puzzle.set(cell, num);
+            }
+            clues += given;
+        }
+        Check.equal(clues, generator.getClues(), "clues counted");
+        Check.that(generator.getAttempts() >= 12, "attempts counted");
+
+        List<PackedBoard> replay = new PuzzleGenerator(SudokuGeometry.CLASSIC, 2).generate(12, 42);
+        for (int p = 0; p < puzzles.size(); p++) {
+            Check.that(Arrays.deepEquals(puzzles.get(p).toGrid(), replay.get(p).toGrid()),
+                    "seed 42 did not replay puzzle " + p);
+        }
+
+        PuzzleGenerator easy = new PuzzleGenerator(SudokuGeometry.CLASSIC, 1);
+        easy.setDifficulty(PuzzleGenerator.Difficulty.EASY);
+        easy.setTargetClues(32);
+        for (PackedBoard puzzle : easy.generate(5, 7)) {
+            unique(puzzle);
+            int given = 0;
+            for (int cell = 0; cell < 81; cell++) {
+                if (puzzle.get(cell) != 0) given++;
+            }
+            Check.equal(32, given, "clues of a targeted puzzle");
+            ConstraintProgrammingSudokuSolver counter = new ConstraintProgrammingSudokuSolver(puzzle);
+            counter.countSolutions(2);
+            Check.equal(1, counter.getMetrics().getNodesVisited(), "nodes to prove an easy puzzle unique");
+        }
+
+        for (PackedBoard puzzle : new PuzzleGenerator(SudokuGeometry.of(4, 4), 2).generate(2, 3)) unique(puzzle);
+        System.out.println("PuzzleGeneratorCheck passed");
+    }
+
+    private static void unique(PackedBoard puzzle) {
+        Check.equal(1, new DancingLinksSudokuSolver(puzzle).countSolutions(2), "solutions of a generated puzzle");
+    }
+}
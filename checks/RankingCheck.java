@@ -0,0 +1,44 @@
+import java.util.*;
+
+// Methods are ranked by steps taken, placements plus backtracks, then by CPU time, and the
+// ranking works straight off trySolve's results
+public class RankingCheck {
+
+    public static void main(String[] args) {
+        Map<String, SolveResult> results = new HashMap<>();
+        results.put("many_backtracks", result("many_backtracks", 10, 90));
+        results.put("few_steps", result("few_steps", 20, 0));
+        results.put("many_placements", result("many_placements", 60, 5));
+        Check.that(BestSudokuSolver.rankMethods(results).equals(List.of("few_steps", "many_placements", "many_backtracks")),
+                "ranking ignores steps: " + BestSudokuSolver.rankMethods(results));
+
+        int[][] puzzle = Check.grid(Check.PUZZLES[2]);
+        results.clear();
+        for (SudokuSolver solver : List.of(new DancingLinksSudokuSolver(puzzle),
+                new ConstraintProgrammingSudokuSolver(puzzle), new RelationResidualSudokuSolver(puzzle))) {
+            SolveResult result = solver.trySolve();
+            Check.that(result.isSolved() && SudokuBoard.isSolution(puzzle, result.getSolution()),
+                    solver.name() + " did not solve");
+            results.put(solver.name(), result);
+        }
+        List<String> ranking = BestSudokuSolver.rankMethods(results);
+        Check.equal(results.size(), ranking.size(), "ranked methods");
+        for (int i = 1; i < ranking.size(); i++) {
+            SolveResult ahead = results.get(ranking.get(i - 1));
+            SolveResult behind = results.get(ranking.get(i));
+            long aheadSteps = ahead.getPlacements() + ahead.getBacktracks();
+            long behindSteps = behind.getPlacements() + behind.getBacktracks();
+            Check.that(aheadSteps < behindSteps
+                            || aheadSteps == behindSteps && ahead.getCpuNanos() <= behind.getCpuNanos(),
+                    ranking.get(i - 1) + " ranked ahead of " + ranking.get(i));
+        }
+        System.out.println("RankingCheck passed");
+    }
+
+    private static SolveResult result(String name, long placements, long backtracks) {
+        SolverMetrics after = new SolverMetrics();
+        after.placements = placements;
+        after.backtracks = backtracks;
+        return new SolveResult(name, SolveStatus.SOLVED, new int[9][9], new SolverMetrics(), after);
+    }
+}
@@ -0,0 +1,35 @@
+import java.util.Arrays;
+
+// RelationResidualSudokuSolver's bitmask residuals and trail undo: every puzzle solves to
+// the one solution DLX finds, clashing givens come back UNSOLVABLE, and a placement undone
+// through the trail leaves the same next MRV cell as before it was made
+public class RelationResidualCheck {
+
+    public static void main(String[] args) {
+        for (String line : Check.PUZZLES) {
+            int[][] puzzle = Check.grid(line);
+            SolveResult result = new RelationResidualSudokuSolver(puzzle).trySolve();
+            Check.that(result.isSolved(), "not solved: " + line);
+            Check.that(SudokuBoard.isSolution(puzzle, result.getSolution()), "invalid solution: " + line);
+            Check.that(Arrays.deepEquals(new DancingLinksSudokuSolver(puzzle).trySolve().getSolution(),
+                    result.getSolution()), "differs from DLX: " + line);
+        }
+
+        int[][] broken = Check.grid(Check.UNIQUE);
+        broken[0][1] = 8;
+        Check.that(new RelationResidualSudokuSolver(broken).trySolve().getStatus() == SolveStatus.UNSOLVABLE,
+                "clashing givens not reported unsolvable");
+
+        RelationResidualSudokuSolver solver = new RelationResidualSudokuSolver(Check.grid(Check.PUZZLES[2]));
+        SudokuBoard board = new SudokuBoard(Check.grid(Check.PUZZLES[2]));
+        int before = solver.getCellWithFewestCandidates();
+        int row = before / 9, col = before % 9;
+        int num = Long.numberOfTrailingZeros(board.candidates(row, col)) + 1;
+        solver.updateResiduals(row, col, num);
+        Check.that(solver.getCellWithFewestCandidates() != before, "placed cell still offered");
+        solver.undoResiduals(row, col, 0);
+        Check.equal(before, solver.getCellWithFewestCandidates(), "MRV cell after undo");
+        Check.that(solver.trySolve().isSolved(), "not solved after an undone placement");
+        System.out.println("RelationResidualCheck passed");
+    }
+}
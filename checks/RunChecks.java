@@ -0,0 +1,32 @@
+// Runs every self-check in this directory and stops at the first failure
+public class RunChecks {
+
+    public static void main(String[] args) throws Exception {
+        RelationResidualCheck.main(args);
+        SudokuBoardCheck.main(args);
+        SolverAgreementCheck.main(args);
+        ConstraintPropagatorCheck.main(args);
+        BatchCheck.main(args);
+        PortfolioCheck.main(args);
+        RankingCheck.main(args);
+        TraceCheck.main(args);
+        StochasticCheck.main(args);
+        AnnealingCheck.main(args);
+        GeometryCheck.main(args);
+        HotMethodCheck.main(args);
+        SeedReplayCheck.main(args);
+        DancingLinksCheck.main(args);
+        ParallelSearchCheck.main(args);
+        SolutionCacheCheck.main(args);
+        PackedBoardCheck.main(args);
+        MappedBatchCheck.main(args);
+        BudgetCheck.main(args);
+        SolveResultCheck.main(args);
+        MrvQueueCheck.main(args);
+        CheckpointCheck.main(args);
+        PuzzleGeneratorCheck.main(args);
+        SolverRouterCheck.main(args);
+        KernelCheck.main(args);
+        System.out.println("All checks passed");
+    }
+}
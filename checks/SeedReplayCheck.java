@@ -0,0 +1,64 @@
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+// A seed replays the randomized solvers event for event, and the seed of the winning parallel
+// chain reproduces its solution on a single thread
+public class SeedReplayCheck {
+
+    public static void main(String[] args) throws Exception {
+        int[][] solution = new DancingLinksSudokuSolver(Check.grid(Check.UNIQUE)).trySolve().getSolution();
+        int[][] blanked = Check.copy(solution);
+        for (int cell = 0; cell < 81; cell += 2) blanked[cell / 9][cell % 9] = 0;
+        for (long seed = 1; seed <= 3; seed++) {
+            RingBufferTraceSink first = new RingBufferTraceSink(1 << 16);
+            RingBufferTraceSink second = new RingBufferTraceSink(1 << 16);
+            BacktrackingSudokuSolver solver = new BacktrackingSudokuSolver(blanked, seed);
+            solver.setTraceSink(first);
+            BacktrackingSudokuSolver replay = new BacktrackingSudokuSolver(blanked, solver.getSeed());
+            replay.setTraceSink(second);
+            same("backtracker seed " + seed, solver.trySolve(), replay.trySolve(), first, second);
+            Check.that(SudokuBoard.isSolution(blanked, solver.getSolution()), "backtracker failed with seed " + seed);
+        }
+
+        int[][] puzzle = Check.grid(Check.PUZZLES[1]);
+        for (long seed = 1; seed <= 3; seed++) {
+            RingBufferTraceSink first = new RingBufferTraceSink(1 << 20);
+            RingBufferTraceSink second = new RingBufferTraceSink(1 << 20);
+            StochasticSudokuSolver solver = new StochasticSudokuSolver(puzzle, AnnealingSchedule.DEFAULT, seed);
+            solver.setTraceSink(first);
+            StochasticSudokuSolver replay = new StochasticSudokuSolver(puzzle, AnnealingSchedule.DEFAULT, solver.getSeed());
+            replay.setTraceSink(second);
+            same("stochastic seed " + seed, solver.trySolve(), replay.trySolve(), first, second);
+        }
+
+        // On success solveParallel prints and writes its files like solve(); remove any it leaves
+        List<Path> written = List.of(Path.of("stochastic_solution.txt"), Path.of("stochastic_steps.txt"));
+        boolean existed = Files.exists(written.get(0)) || Files.exists(written.get(1));
+        try {
+            StochasticSudokuSolver parallel = new StochasticSudokuSolver(puzzle, AnnealingSchedule.DEFAULT, 9);
+            Check.that(parallel.solveParallel(3), "no chain solved");
+            SolveResult replayed = new StochasticSudokuSolver(puzzle, AnnealingSchedule.DEFAULT, parallel.getSolutionSeed()).trySolve();
+            Check.that(Arrays.deepEquals(parallel.getSolution(), replayed.getSolution()),
+                    "the winning chain's seed did not replay its solution");
+        } finally {
+            if (!existed) {
+                for (Path path : written) Files.deleteIfExists(path);
+            }
+        }
+        System.out.println("SeedReplayCheck passed");
+    }
+
+    private static void same(String what, SolveResult first, SolveResult second,
+                             RingBufferTraceSink firstTrace, RingBufferTraceSink secondTrace) {
+        Check.that(first.isSolved() && second.isSolved(), what + " did not solve");
+        Check.that(Arrays.deepEquals(first.getSolution(), second.getSolution()), what + " replayed another solution");
+        Check.equal(first.getNodesVisited(), second.getNodesVisited(), what + " nodes");
+        Check.equal(first.getPlacements(), second.getPlacements(), what + " placements");
+        Check.equal(firstTrace.getRecorded(), secondTrace.getRecorded(), what + " events");
+        for (int i = 0; i < firstTrace.size(); i++) {
+            Check.equal(firstTrace.get(i), secondTrace.get(i), what + " event " + i);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.Random;
+
+// Puzzles equivalent under Sudoku symmetries share one cache entry, and the cached solution
+// is mapped back onto each variant's own givens
+public class SolutionCacheCheck {
+
+    public static void main(String[] args) {
+        SolutionCache cache = new SolutionCache(1024);
+        Random random = new Random(16);
+        long misses = 0;
+        for (String line : Check.PUZZLES) {
+            int[][] puzzle = Check.grid(line);
+            solve(cache, "original", puzzle);
+            Check.equal(++misses, cache.getMisses(), "misses after a new puzzle");
+
+            long hits = cache.getHits();
+            solve(cache, "transposed", transpose(puzzle));
+            solve(cache, "relabelled", relabel(puzzle, random));
+            solve(cache, "bands swapped", swapRows(puzzle, 0, 6, 3));
+            solve(cache, "rows swapped", swapRows(puzzle, 3, 5, 1));
+            solve(cache, "stacks swapped", transpose(swapRows(transpose(puzzle), 3, 6, 3)));
+            solve(cache, "combined", relabel(transpose(swapRows(swapRows(puzzle, 0, 3, 3), 7, 8, 1)), random));
+            Check.equal(hits + 6, cache.getHits(), "hits on the variants of puzzle " + line);
+            Check.equal(misses, cache.getMisses(), "misses on the variants");
+        }
+        Check.equal(Check.PUZZLES.length, cache.size(), "entries, one per class of puzzles");
+
+        int[][] broken = Check.grid(Check.UNIQUE);
+        broken[0][1] = 8;
+        Check.that(cache.solve(broken) == null, "clashing givens came back solved");
+        Check.equal(Check.PUZZLES.length, cache.size(), "entries after an unsolvable puzzle");
+
+        SolutionCache small = new SolutionCache(16);
+        for (int i = 0; i < 40; i++) {
+            int[][] puzzle = LargeBoardBenchmark.generatePuzzle(SudokuGeometry.CLASSIC, random);
+            solve(small, "generated", puzzle);
+        }
+        Check.that(small.size() <= 16 && small.getEvictions() > 0, "a full cache kept " + small.size() + " entries");
+        System.out.println("SolutionCacheCheck passed");
+    }
+
+    private static void solve(SolutionCache cache, String variant, int[][] puzzle) {
+        int[][] solution = cache.solve(puzzle);
+        Check.that(solution != null && SudokuBoard.isSolution(puzzle, solution), variant + " puzzle got a wrong solution");
+    }
+
+    private static int[][] transpose(int[][] grid) {
+        int[][] result = new int[9][9];
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) result[c][r] = grid[r][c];
+        }
+        return result;
+    }
+
+    // Swaps count rows starting at first with as many starting at second
+    private static int[][] swapRows(int[][] grid, int first, int second, int count) {
+        int[][] result = Check.copy(grid);
+        for (int i = 0; i < count; i++) {
+            result[first + i] = grid[second + i].clone();
+            result[second + i] = grid[first + i].clone();
+        }
+        return result;
+    }
+
+    private static int[][] relabel(int[][] grid, Random random) {
+        int[] label = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        for (int i = 9; i > 1; i--) {
+            int j = 1 + random.nextInt(i);
+            int swap = label[i];
+            label[i] = label[j];
+            label[j] = swap;
+        }
+        int[][] result = new int[9][9];
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) result[r][c] = label[grid[r][c]];
+        }
+        return result;
+    }
+}
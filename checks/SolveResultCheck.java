@@ -0,0 +1,60 @@
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+// trySolve prints and writes nothing, and each SolveResult keeps its own copy of the grid
+// and only its own solve's share of the solver's running counters
+public class SolveResultCheck {
+
+    public static void main(String[] args) {
+        int[][] puzzle = Check.grid(Check.PUZZLES[1]);
+        DancingLinksSudokuSolver dancingLinks = new DancingLinksSudokuSolver(puzzle);
+        ConstraintProgrammingSudokuSolver constraint = new ConstraintProgrammingSudokuSolver(puzzle);
+        RelationResidualSudokuSolver residual = new RelationResidualSudokuSolver(puzzle);
+        // The backtracker gets a grid a third empty; the real puzzles take it seconds
+        int[][] blanked = new DancingLinksSudokuSolver(puzzle).trySolve().getSolution();
+        for (int cell = 0; cell < 81; cell += 3) blanked[cell / 9][cell % 9] = 0;
+        BacktrackingSudokuSolver backtracking = new BacktrackingSudokuSolver(blanked, 2);
+        StochasticSudokuSolver stochastic = new StochasticSudokuSolver(puzzle, AnnealingSchedule.DEFAULT, 2);
+        twice(dancingLinks, dancingLinks::getMetrics);
+        twice(constraint, constraint::getMetrics);
+        twice(residual, residual::getMetrics);
+        twice(backtracking, backtracking::getMetrics);
+        twice(stochastic, stochastic::getMetrics);
+        System.out.println("SolveResultCheck passed");
+    }
+
+    private static void twice(SudokuSolver solver, Supplier<SolverMetrics> metrics) {
+        String[] files = new File(".").list();
+        PrintStream console = System.out;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        SolveResult first, second;
+        System.setOut(new PrintStream(printed));
+        try {
+            first = solver.trySolve();
+            second = solver.trySolve();
+        } finally {
+            System.setOut(console);
+        }
+        Check.equal(0, printed.size(), solver.name() + " printed from trySolve");
+        Check.that(Arrays.equals(files, new File(".").list()), solver.name() + " wrote files from trySolve");
+
+        Check.that(first.isSolved() && second.isSolved(), solver.name() + " did not solve");
+        Check.that(first.getSolver().equals(solver.name()), "result names " + first.getSolver());
+        SolverMetrics total = metrics.get();
+        Check.equal(total.getNodesVisited(), first.getNodesVisited() + second.getNodesVisited(), solver.name() + " nodes");
+        Check.equal(total.getPlacements(), first.getPlacements() + second.getPlacements(), solver.name() + " placements");
+        Check.equal(total.getBacktracks(), first.getBacktracks() + second.getBacktracks(), solver.name() + " backtracks");
+        Check.that(first.getCpuNanos() <= total.getCpuNanos(), solver.name() + " CPU time of one solve exceeds the total");
+
+        int[][] grid = first.getSolution();
+        int kept = grid[4][4];
+        grid[4][4] = 0;
+        Check.equal(kept, first.getSolution()[4][4], solver.name() + " result shares its grid");
+        Check.equal(kept, first.get(4, 4), solver.name() + " get(4, 4)");
+        Check.that(!first.toString().isEmpty() && first.toString().startsWith(solver.name() + ": SOLVED"),
+                "result text " + first);
+    }
+}
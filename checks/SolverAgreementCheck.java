@@ -0,0 +1,42 @@
+import java.util.Arrays;
+import java.util.Random;
+
+// The exact engines (dancing links, constraint programming, relation residual) must agree on
+// every puzzle with one solution, 9x9 and 16x16, and the randomized backtracker must find
+// that same solution on a lightly blanked grid
+public class SolverAgreementCheck {
+
+    public static void main(String[] args) {
+        Random random = new Random(11);
+        int[][][] puzzles = new int[Check.PUZZLES.length + 2][][];
+        for (int p = 0; p < Check.PUZZLES.length; p++) puzzles[p] = Check.grid(Check.PUZZLES[p]);
+        puzzles[Check.PUZZLES.length] = Check.grid(Check.UNIQUE);
+        puzzles[Check.PUZZLES.length + 1] = LargeBoardBenchmark.generatePuzzle(SudokuGeometry.of(4, 4), random);
+
+        for (int[][] puzzle : puzzles) {
+            DancingLinksSudokuSolver dancingLinks = new DancingLinksSudokuSolver(puzzle);
+            if (puzzle.length == 9) Check.equal(1, dancingLinks.countSolutions(2), "check puzzle is not unique");
+            int[][] expected = dancingLinks.trySolve().getSolution();
+            Check.that(expected != null && SudokuBoard.isSolution(puzzle, expected), "DLX did not solve");
+            if (puzzle.length != 9) continue; // the 16x16 one may have several solutions
+            for (SudokuSolver solver : new SudokuSolver[]{
+                    new ConstraintProgrammingSudokuSolver(puzzle), new RelationResidualSudokuSolver(puzzle)}) {
+                Check.that(Arrays.deepEquals(expected, solver.trySolve().getSolution()), solver.name() + " disagrees");
+            }
+        }
+        int[][] large = puzzles[puzzles.length - 1];
+        Check.that(SudokuBoard.isSolution(large, new ConstraintProgrammingSudokuSolver(large).trySolve().getSolution()),
+                "CP did not solve 16x16");
+        Check.that(SudokuBoard.isSolution(large, new RelationResidualSudokuSolver(large).trySolve().getSolution()),
+                "RR did not solve 16x16");
+
+        int[][] solution = new DancingLinksSudokuSolver(Check.grid(Check.UNIQUE)).trySolve().getSolution();
+        int[][] blanked = Check.copy(solution);
+        for (int cell = 0; cell < 81; cell += 3) blanked[cell / 9][cell % 9] = 0;
+        for (long seed = 1; seed <= 3; seed++) {
+            SolveResult result = new BacktrackingSudokuSolver(blanked, seed).trySolve();
+            Check.that(SudokuBoard.isSolution(blanked, result.getSolution()), "backtracker failed with seed " + seed);
+        }
+        System.out.println("SolverAgreementCheck passed");
+    }
+}
@@ -0,0 +1,81 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// The router picks the solver with the least time per solved run, trusting a bucket only
+// once it has enough runs, and its statistics survive a save and load unchanged
+public class SolverRouterCheck {
+
+    public static void main(String[] args) throws Exception {
+        for (String name : SolverRouter.SOLVERS) {
+            Check.that(SolverRouter.create(name, Check.grid(Check.UNIQUE)).name().equals(name), "create(" + name + ")");
+        }
+
+        PuzzleFeatures hard = PuzzleFeatures.of(Check.grid(Check.UNIQUE));
+        PuzzleFeatures easy = PuzzleFeatures.of(Check.grid(Check.PUZZLES[0]));
+        Check.that(hard.bucket() != easy.bucket(), "the check needs puzzles in two buckets");
+        SolverRouter router = new SolverRouter();
+        Check.that(router.choose(hard).equals("constraint_programming"), "choice with nothing learned");
+
+        for (int run = 0; run < 5; run++) {
+            router.record(hard, "dancing_links", true, 100);
+            router.record(hard, "constraint_programming", true, 1000);
+            router.record(hard, "stochastic", false, 10); // fast, but never solves
+        }
+        Check.that(router.choose(hard).equals("dancing_links"), "choice in a learned bucket: " + router.choose(hard));
+        Check.that(router.choose(easy).equals("dancing_links"), "an unlearned bucket follows the totals");
+
+        for (int run = 0; run < 4; run++) router.record(easy, "relation_residual", true, 1);
+        Check.that(router.choose(easy).equals("dancing_links"), "a bucket trusted before it had enough runs");
+        router.record(easy, "relation_residual", true, 1);
+        Check.that(router.choose(easy).equals("relation_residual"), "choice in the second bucket");
+        Check.that(router.choose(hard).equals("dancing_links"), "the second bucket changed the first");
+
+        Path file = Files.createTempFile("router-check", ".txt");
+        try {
+            router.save(file);
+            SolverRouter loaded = SolverRouter.load(file);
+            Check.that(loaded.choose(hard).equals("dancing_links") && loaded.choose(easy).equals("relation_residual"),
+                    "choices after a load");
+            Check.that(loaded.toString().equals(router.toString()), "totals after a load");
+            byte[] saved = Files.readAllBytes(file);
+            loaded.save(file);
+            Check.that(Arrays.equals(saved, Files.readAllBytes(file)), "a loaded router saves other statistics");
+
+            Files.writeString(file, "3 no_such_solver 1 1 1\n");
+            try {
+                SolverRouter.load(file);
+                throw new AssertionError("an unknown solver was loaded");
+            } catch (IOException expected) {
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        int[][] broken = Check.grid(Check.UNIQUE);
+        broken[0][1] = 8;
+        Check.equal(0, PuzzleFeatures.of(broken).bucket(), "bucket of clashing givens");
+        int[][] nearlyFull = new DancingLinksSudokuSolver(Check.grid(Check.UNIQUE)).trySolve().getSolution();
+        nearlyFull[4][4] = 0;
+        Check.equal(1, PuzzleFeatures.of(nearlyFull).bucket(), "bucket of a puzzle propagation solves");
+
+        ExecutorService pool = Executors.newFixedThreadPool(5);
+        try {
+            SolverRouter learning = new SolverRouter();
+            for (String line : Check.PUZZLES) {
+                int[][] puzzle = Check.grid(line);
+                SudokuSolverRunner.PortfolioResult result = SudokuSolverRunner.solveRouted(puzzle, learning, pool,
+                        SearchBudget.ofNodes(1_000_000));
+                Check.that(result != null && SudokuBoard.isSolution(puzzle, result.solution), "routed solve failed");
+            }
+            Check.that(SudokuSolverRunner.solveRouted(broken, learning, pool, SearchBudget.UNLIMITED) == null,
+                    "routed solve of clashing givens");
+        } finally {
+            pool.shutdownNow();
+        }
+        System.out.println("SolverRouterCheck passed");
+    }
+}
@@ -0,0 +1,33 @@
+// The annealer's incrementally scored swaps reach a real solution, and a chain that runs out
+// of steps says so rather than returning a grid with conflicts left
+public class StochasticCheck {
+
+    public static void main(String[] args) {
+        for (int i = 0; i < 2; i++) {
+            int[][] puzzle = Check.grid(Check.PUZZLES[i]);
+            for (long seed = 1; seed <= 3; seed++) {
+                StochasticSudokuSolver solver = new StochasticSudokuSolver(puzzle, AnnealingSchedule.DEFAULT, seed);
+                SolveResult first = solver.trySolve();
+                Check.that(first.isSolved() && SudokuBoard.isSolution(puzzle, first.getSolution()),
+                        "seed " + seed + " did not solve puzzle " + i);
+                Check.that(first.getPlacements() + first.getBacktracks() <= first.getNodesVisited(),
+                        "more swaps scored than steps taken");
+
+                // A second solve refills the free cells and anneals from scratch
+                SolveResult second = solver.trySolve();
+                Check.that(second.isSolved() && SudokuBoard.isSolution(puzzle, second.getSolution()),
+                        "repeat solve failed for seed " + seed);
+                Check.equal(solver.getMetrics().getNodesVisited(), first.getNodesVisited() + second.getNodesVisited(),
+                        "steps of both solves");
+            }
+        }
+
+        AnnealingSchedule brief = new AnnealingSchedule(1.0, 0.9999, 0.05, 20000, 1.0, 1000);
+        int[][] hard = Check.grid(Check.UNIQUE);
+        SolveResult result = new StochasticSudokuSolver(hard, brief, 1).trySolve();
+        Check.that(result.getStatus() == SolveStatus.BUDGET_EXCEEDED, "a stalled chain reported " + result.getStatus());
+        Check.that(result.getSolution() == null, "a stalled chain returned a grid");
+        Check.equal(1000, result.getNodesVisited(), "steps before maxSteps stopped the chain");
+        System.out.println("StochasticCheck passed");
+    }
+}
@@ -0,0 +1,51 @@
+import java.util.Random;
+
+// SudokuBoard's occupancy masks against a plain scan of the grid, through random legal
+// placements and removals on 9x9 and 16x16 boards, and isSolution on good and bad grids
+public class SudokuBoardCheck {
+
+    public static void main(String[] args) {
+        Random random = new Random(7);
+        for (int boxSize : new int[]{3, 4}) {
+            SudokuGeometry geometry = SudokuGeometry.of(boxSize, boxSize);
+            int size = geometry.size;
+            SudokuBoard board = new SudokuBoard(new int[size][size], geometry);
+            for (int step = 0; step < 5000; step++) {
+                int row = random.nextInt(size), col = random.nextInt(size);
+                if (!board.isEmpty(row, col)) {
+                    board.unplace(row, col);
+                } else if (board.countCandidates(row, col) > 0) {
+                    long mask = board.candidates(row, col);
+                    for (int skip = random.nextInt(Long.bitCount(mask)); skip > 0; skip--) mask &= mask - 1;
+                    board.place(row, col, Long.numberOfTrailingZeros(mask) + 1);
+                }
+                int r = random.nextInt(size), c = random.nextInt(size);
+                Check.equal(scan(board.toGrid(), geometry, r, c), board.candidates(r, c),
+                        size + "x" + size + " candidates at step " + step);
+            }
+        }
+
+        int[][] puzzle = Check.grid(Check.UNIQUE);
+        int[][] solution = new DancingLinksSudokuSolver(puzzle).trySolve().getSolution();
+        Check.that(SudokuBoard.isSolution(puzzle, solution), "solution rejected");
+        int[][] swapped = Check.copy(solution);
+        int tmp = swapped[0][0];
+        swapped[0][0] = swapped[0][1];
+        swapped[0][1] = tmp;
+        Check.that(!SudokuBoard.isSolution(puzzle, swapped), "grid with clashing columns accepted");
+        System.out.println("SudokuBoardCheck passed");
+    }
+
+    // Digits that no filled peer of (row, col) uses, as a mask
+    private static long scan(int[][] grid, SudokuGeometry geometry, int row, int col) {
+        long used = 0;
+        for (int i = 0; i < geometry.size; i++) {
+            for (int j = 0; j < geometry.size; j++) {
+                if (grid[i][j] != 0 && (i == row || j == col || geometry.box(i, j) == geometry.box(row, col))) {
+                    used |= 1L << (grid[i][j] - 1);
+                }
+            }
+        }
+        return ~used & geometry.allDigits;
+    }
+}
@@ -0,0 +1,87 @@
+import java.io.Writer;
+
+// A recorded trace matches the solver's counters and replays to its solution, and the ring
+// buffer keeps exactly the newest events once it wraps
+public class TraceCheck {
+
+    public static void main(String[] args) {
+        int[][] puzzle = Check.grid(Check.UNIQUE);
+        Tee tee = new Tee();
+        DancingLinksSudokuSolver dancingLinks = new DancingLinksSudokuSolver(puzzle);
+        dancingLinks.setTraceSink(tee);
+        tee.check(puzzle, dancingLinks);
+        tee = new Tee();
+        RelationResidualSudokuSolver relationResidual = new RelationResidualSudokuSolver(puzzle);
+        relationResidual.setTraceSink(tee);
+        tee.check(puzzle, relationResidual);
+        tee = new Tee();
+        ConstraintProgrammingSudokuSolver constraintProgramming = new ConstraintProgrammingSudokuSolver(puzzle);
+        constraintProgramming.setTraceSink(tee);
+        tee.check(puzzle, constraintProgramming);
+
+        RingBufferTraceSink ring = new RingBufferTraceSink(5);
+        for (int i = 0; i < 20; i++) ring.record(i, i % 9 + 1, i % 2);
+        Check.equal(8, ring.size(), "capacity rounded up to a power of two");
+        Check.equal(20, ring.getRecorded(), "events recorded");
+        for (int i = 0; i < ring.size(); i++) {
+            Check.equal(TraceSink.pack(12 + i, (12 + i) % 9 + 1, (12 + i) % 2), ring.get(i), "retained event " + i);
+        }
+
+        Check.that(TraceSink.format(TraceSink.pack(80, 9, TraceSink.PLACED), 9).equals("Step: (8,8) = 9 (Placed)"),
+                "placed event formatting");
+        Check.that(TraceSink.format(TraceSink.pack(255, 16, TraceSink.BACKTRACKED), 16).equals("Step: (15,15) = 16 (Backtracked)"),
+                "16x16 event formatting");
+        Check.that(TraceSink.format(TraceSink.pack(1, 10, TraceSink.SWAPPED), 9).equals("Step: Swapped (0,1) with (1,1)"),
+                "swap event formatting");
+        System.out.println("TraceCheck passed");
+    }
+
+    // Hands each event to both sinks, to compare their views of one solve
+    private static class Tee implements TraceSink {
+        final TextTraceSink text = new TextTraceSink();
+        final RingBufferTraceSink ring = new RingBufferTraceSink(1 << 16);
+
+        @Override
+        public void record(int cell, int value, int event) {
+            text.record(cell, value, event);
+            ring.record(cell, value, event);
+        }
+
+        @Override
+        public void writeTo(Writer writer, int size) {
+        }
+
+        void check(int[][] puzzle, SudokuSolver solver) {
+            SolveResult result = solver.trySolve();
+            Check.that(result.isSolved(), solver.name() + " did not solve");
+            Check.equal(text.size(), ring.getRecorded(), solver.name() + " events seen by both sinks");
+            Check.that(ring.size() == ring.getRecorded(), solver.name() + " trace outgrew the check's buffer");
+
+            // Applies every event to the givens. Branching solvers trace each placement, so the
+            // result is the solution, except that propagated cells are left blank by CP.
+            String name = solver.name();
+            int[][] grid = Check.copy(puzzle);
+            long placed = 0, backtracked = 0;
+            for (int i = 0; i < ring.size(); i++) {
+                int entry = ring.get(i), cell = entry & 0xFFF, value = (entry >>> 12) & 0xFFF;
+                if (entry >>> 24 == TraceSink.PLACED) {
+                    Check.that(grid[cell / 9][cell % 9] == 0, name + " placed into a filled cell");
+                    grid[cell / 9][cell % 9] = value;
+                    placed++;
+                } else {
+                    Check.that(grid[cell / 9][cell % 9] == value, name + " took back a digit it never placed");
+                    grid[cell / 9][cell % 9] = 0;
+                    backtracked++;
+                }
+            }
+            Check.equal(result.getPlacements(), placed, name + " placements traced");
+            Check.equal(result.getBacktracks(), backtracked, name + " backtracks traced");
+            int[][] solution = result.getSolution();
+            for (int cell = 0; cell < 81; cell++) {
+                int digit = grid[cell / 9][cell % 9];
+                Check.that(digit == solution[cell / 9][cell % 9] || digit == 0 && solver instanceof ConstraintProgrammingSudokuSolver,
+                        name + " trace does not replay to its solution at cell " + cell);
+            }
+        }
+    }
+}
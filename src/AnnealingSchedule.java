@@ -0,0 +1,59 @@
+public class AnnealingSchedule {
+
+    public static final AnnealingSchedule DEFAULT =
+            new AnnealingSchedule(1.0, 0.9999, 0.05, 20000, 1.0, 5_000_000);
+
+    private final double initialTemperature;
+    private final double coolingRate;
+    private final double minTemperature;
+    private final int reheatAfter;
+    private final double reheatTemperature;
+    private final long maxSteps;
+
+    // Temperature starts at initialTemperature and is multiplied by coolingRate every
+    // step, never dropping below minTemperature. After reheatAfter steps without a new
+    // best conflict count it jumps back to reheatTemperature. A chain gives up after
+    // maxSteps steps.
+    public AnnealingSchedule(double initialTemperature, double coolingRate, double minTemperature,
+                             int reheatAfter, double reheatTemperature, long maxSteps) {
+        if (initialTemperature <= 0 || minTemperature <= 0 || reheatTemperature <= 0) {
+            throw new IllegalArgumentException("Temperatures must be positive");
+        }
+        if (coolingRate <= 0 || coolingRate > 1) {
+            throw new IllegalArgumentException("Cooling rate must be in (0, 1]: " + coolingRate);
+        }
+        if (reheatAfter <= 0 || maxSteps <= 0) {
+            throw new IllegalArgumentException("Step counts must be positive");
+        }
+        this.initialTemperature = initialTemperature;
+        this.coolingRate = coolingRate;
+        this.minTemperature = minTemperature;
+        this.reheatAfter = reheatAfter;
+        this.reheatTemperature = reheatTemperature;
+        this.maxSteps = maxSteps;
+    }
+
+    public double getInitialTemperature() {
+        return initialTemperature;
+    }
+
+    public double getCoolingRate() {
+        return coolingRate;
+    }
+
+    public double getMinTemperature() {
+        return minTemperature;
+    }
+
+    public int getReheatAfter() {
+        return reheatAfter;
+    }
+
+    public double getReheatTemperature() {
+        return reheatTemperature;
+    }
+
+    public long getMaxSteps() {
+        return maxSteps;
+    }
+}
@@ -1,119 +1,177 @@
 import java.io.*;
 import java.util.*;
 
-public class BacktrackingSudokuSolver {
+public class BacktrackingSudokuSolver implements SudokuSolver {
 
-    private static final int SIZE = 9;
-    private int[][] board;
+    private final int size;
+    private SudokuBoard board;
+
+    // Digit order tried at each search depth, one row per depth, so nodes allocate nothing
+    private final int[][] order;
+
+    // Every random choice comes from this generator, so a seed replays a solve exactly
+    private final long seed;
+    private final SplittableRandom random;
+    private final SolverMetrics metrics = new SolverMetrics();
+    private TraceSink trace = NoOpTraceSink.INSTANCE;
+    private SearchBudget budget = SearchBudget.UNLIMITED;
+    private SearchBudget.Tracker tracker = SearchBudget.UNLIMITED.start(0);
+    private SolveStatus status = SolveStatus.NOT_STARTED;
 
     public BacktrackingSudokuSolver(int[][] input) {
-        board = new int[SIZE][SIZE];
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                board[i][j] = input[i][j];
-            }
-        }
+        this(input, new SplittableRandom().nextLong());
+    }
+
+    public BacktrackingSudokuSolver(int[][] input, long seed) {
+        board = new SudokuBoard(input);
+        size = board.geometry().size;
+        this.seed = seed;
+        random = new SplittableRandom(seed);
+        order = new int[board.geometry().cells][size];
+    }
+
+    public BacktrackingSudokuSolver(PackedBoard input, long seed) {
+        board = new SudokuBoard(input);
+        size = board.geometry().size;
+        this.seed = seed;
+        random = new SplittableRandom(seed);
+        order = new int[board.geometry().cells][size];
+    }
+
+    // Loads another puzzle of the same size into the existing board. The random sequence
+    // carries on rather than restarting, so only a fresh solver replays a seed.
+    public void reset(PackedBoard input) {
+        board.reset(input);
+    }
+
+    // Pass this to the seeded constructor to reproduce the same search
+    public long getSeed() {
+        return seed;
     }
 
-    public boolean solve(List<String> steps) {
-        if (backtrackSolve(steps)) {
+    public boolean solve() {
+        if (trySolve().isSolved()) {
             writeSolutionToFile("backtracking_solution.txt");  // Writing final board
-            writeStepsToFile(steps, "backtracking_steps.txt");  // Writing steps
+            writeStepsToFile("backtracking_steps.txt");  // Writing steps
             return true;
         } else {
             return false;
         }
     }
 
-    // Modified backtracking with randomization and minimum remaining values (MRV)
-    private boolean backtrackSolve(List<String> steps) {
-        int row = -1, col = -1;
-        boolean emptyFound = false;
+    @Override
+    public String name() {
+        return "backtracking";
+    }
 
-        // Apply Minimum Remaining Values (MRV) heuristic - search for the cell with the fewest possibilities
-        List<int[]> emptyCells = new ArrayList<>();
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                if (board[i][j] == 0) {
-                    emptyCells.add(new int[]{i, j});
-                }
+    @Override
+    public SolveResult trySolve() {
+        SolverMetrics before = metrics.copy();
+        tracker = budget.start(metrics.nodesVisited);
+        metrics.start();
+        boolean solved = backtrackSolve(0);
+        metrics.stop();
+        status = tracker.status(solved);
+        return new SolveResult(name(), status, solved ? board.toGrid() : null, before, metrics);
+    }
+
+    // Where placements and backtracks are recorded; nothing is kept by default
+    public void setTraceSink(TraceSink trace) {
+        this.trace = trace;
+    }
+
+    // Node and wall-clock limits for each solve; unlimited by default
+    @Override
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    // How the last solve ended, e.g. BUDGET_EXCEEDED with partial counts in getMetrics
+    public SolveStatus getStatus() {
+        return status;
+    }
+
+    public SolverMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int[][] getSolution() {
+        return board.toGrid();
+    }
+
+    // Backtracking over a random empty cell at each node, trying its digits in random order
+    private boolean backtrackSolve(int depth) {
+        // Cooperative cancellation, e.g. when another solver won the race, and the budget
+        if (Thread.currentThread().isInterrupted()) return false;
+        if (tracker.exceeded(metrics.nodesVisited)) return false;
+        metrics.nodesVisited++;
+
+        int emptyCells = 0;
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (board.isEmpty(i, j)) emptyCells++;
             }
         }
 
         // If no empty cells, we've solved the puzzle
-        if (emptyCells.isEmpty()) return true;
+        if (emptyCells == 0) return true;
 
-        // Randomize cell order (simulating a non-deterministic approach)
-        Collections.shuffle(emptyCells);
-        int[] selectedCell = emptyCells.get(0);
-        row = selectedCell[0];
-        col = selectedCell[1];
+        // Randomize cell order (simulating a non-deterministic approach): take the k-th empty cell
+        int pick = random.nextInt(emptyCells);
+        int cell = 0;
+        while (!board.isEmpty(cell / size, cell % size) || pick-- > 0) cell++;
+        int row = cell / size, col = cell % size;
 
-        // Try numbers in a randomized order
-        List<Integer> numbers = Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9);
-        Collections.shuffle(numbers);
+        // Try numbers in a randomized order, kept in this depth's row of the buffer
+        int[] numbers = order[depth];
+        for (int num = 1; num <= size; num++) numbers[num - 1] = num;
+        shuffle(numbers, random);
 
         for (int num : numbers) {
-            if (isValid(row, col, num)) {
-                board[row][col] = num;
-                steps.add("Step: (" + row + "," + col + ") = " + num + " (Placed)");
-                if (backtrackSolve(steps)) {
+            if (board.isValid(row, col, num)) {
+                board.place(row, col, num);
+                metrics.placements++;
+                trace.record(cell, num, TraceSink.PLACED);
+                if (backtrackSolve(depth + 1)) {
                     return true;
                 }
-                board[row][col] = 0;
-                steps.add("Step: (" + row + "," + col + ") = " + num + " (Backtracked)");
+                board.unplace(row, col);
+                metrics.backtracks++;
+                trace.record(cell, num, TraceSink.BACKTRACKED);
+                if (tracker.isExceeded()) break; // no sibling is tried once the budget is gone
             }
         }
         return false;
     }
 
-    private boolean isValid(int row, int col, int num) {
-        for (int i = 0; i < SIZE; i++) {
-            if (board[row][i] == num || board[i][col] == num) {
-                return false;
-            }
-        }
-        int startRow = row - row % 3, startCol = col - col % 3;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i + startRow][j + startCol] == num) {
-                    return false;
-                }
-            }
+    // Fisher-Yates, drawing from the solver's own generator
+    private static void shuffle(int[] values, SplittableRandom random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
         }
-        return true;
     }
 
     private void writeSolutionToFile(String fileName) {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
-            for (int i = 0; i < SIZE; i++) {
-                for (int j = 0; j < SIZE; j++) {
-                    writer.write(board[i][j] + " ");
-                    if (j == 2 || j == 5) writer.write("| ");
-                }
-                writer.newLine();
-                if (i == 2 || i == 5) {
-                    writer.write("------+-------+------");
-                    writer.newLine();
-                }
-            }
+            board.geometry().writeGrid(writer, board.toGrid());
         } catch (IOException e) {
             System.err.println("Error writing solution to file: " + e.getMessage());
         }
     }
 
-    private void writeStepsToFile(List<String> steps, String fileName) {
+    private void writeStepsToFile(String fileName) {
+        if (!trace.isEnabled()) return;
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
-            for (String step : steps) {
-                writer.write(step);
-                writer.newLine();
-            }
+            trace.writeTo(writer, size);
         } catch (IOException e) {
             System.err.println("Error writing steps to file: " + e.getMessage());
         }
     }
 
-    // Main method for testing the Backtracking solver
+    // Main method for testing the Backtracking solver; pass a seed to replay an earlier run
     public static void main(String[] args) {
         int[][] puzzle = {
                 {4, 0, 0, 1, 7, 5, 0, 0, 2},
@@ -127,9 +185,12 @@ public class BacktrackingSudokuSolver {
                 {0, 0, 4, 0, 0, 0, 0, 6, 1}
         };
 
-        BacktrackingSudokuSolver solver = new BacktrackingSudokuSolver(puzzle);
-        List<String> steps = new ArrayList<>();
-        if (solver.solve(steps)) {
+        BacktrackingSudokuSolver solver = args.length > 0
+                ? new BacktrackingSudokuSolver(puzzle, Long.parseLong(args[0]))
+                : new BacktrackingSudokuSolver(puzzle);
+        System.out.println("Seed: " + solver.getSeed());
+        solver.setTraceSink(new TextTraceSink());
+        if (solver.solve()) {
             System.out.println("Sudoku solved successfully!");
         } else {
             System.out.println("No solution found.");
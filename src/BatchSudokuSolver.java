@@ -0,0 +1,232 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+public class BatchSudokuSolver {
+
+    private static final int SIZE = SudokuGeometry.CLASSIC.size;
+    private static final int CELLS = SudokuGeometry.CLASSIC.cells;
+
+    // Puzzles handed to a worker at once, so queueing cost is amortised
+    private static final int CHUNK = 1024;
+
+    // Marks a line that was not 81 cells long; it is answered with an unsolved record
+    private static final byte MALFORMED = -1;
+
+    // Bounds on the mapped segment each worker takes, aiming for a few per thread
+    private static final long MIN_SEGMENT_BYTES = 1L << 16;
+    private static final long MAX_SEGMENT_BYTES = MappedPuzzleCorpus.DEFAULT_SEGMENT_BYTES;
+
+    private final int threads;
+    private final LongAdder solved = new LongAdder();
+    private final LongAdder overBudget = new LongAdder();
+    private long puzzles;
+    private SearchBudget budget = SearchBudget.UNLIMITED;
+
+    // Shared by the workers when set, so repeats and symmetric variants are not solved again
+    private final SolutionCache cache;
+
+    public BatchSudokuSolver(int threads) {
+        this(threads, null);
+    }
+
+    public BatchSudokuSolver(int threads, SolutionCache cache) {
+        this.threads = threads;
+        this.cache = cache;
+    }
+
+    public long getPuzzles() {
+        return puzzles;
+    }
+
+    public long getSolved() {
+        return solved.sum();
+    }
+
+    // Puzzles abandoned at the budget, which are written out as unsolved
+    public long getOverBudget() {
+        return overBudget.sum();
+    }
+
+    // Limits each puzzle's search, cache misses included, so one pathological puzzle cannot
+    // hold a worker
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    // Reads one puzzle per line (81 characters, digits with '0' or '.' for blanks) and
+    // writes one solved line per puzzle in input order; unsolvable or malformed
+    // puzzles get a line of zeros
+    public void solveFile(String inputFile, String outputFile) throws IOException, InterruptedException {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(2 * threads), new ThreadPoolExecutor.CallerRunsPolicy());
+        Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(inputFile), 1 << 16);
+             OutputStream out = new BufferedOutputStream(new FileOutputStream(outputFile), 1 << 16)) {
+            byte[] buffer = new byte[1 << 16];
+            byte[] chunk = new byte[CHUNK * CELLS];
+            int count = 0, lineLength = 0;
+            int read;
+            do {
+                read = in.read(buffer);
+                for (int i = 0; i < read; i++) {
+                    byte b = buffer[i];
+                    if (b == '\r') continue;
+                    if (b != '\n') {
+                        if (lineLength < CELLS) {
+                            chunk[count * CELLS + lineLength] = b >= '1' && b <= '9' ? (byte) (b - '0') : 0;
+                        }
+                        lineLength++;
+                        continue;
+                    }
+                    if (lineLength == 0) continue;
+                    if (lineLength != CELLS) chunk[count * CELLS] = MALFORMED;
+                    lineLength = 0;
+                    if (++count == CHUNK) {
+                        submit(pool, pending, chunk, count, out);
+                        chunk = new byte[CHUNK * CELLS];
+                        count = 0;
+                    }
+                }
+            } while (read >= 0);
+
+            // Last line without a trailing newline
+            if (lineLength > 0) {
+                if (lineLength != CELLS) chunk[count * CELLS] = MALFORMED;
+                count++;
+            }
+            if (count > 0) submit(pool, pending, chunk, count, out);
+            while (!pending.isEmpty()) out.write(await(pending.poll()));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Same input and output as solveFile, but both files are memory-mapped: workers parse
+    // puzzles straight from the corpus segments and write each solution to its record's
+    // fixed offset in the output, so there is no reader thread and no ordering queue
+    public void solveMapped(String inputFile, String outputFile) throws IOException, InterruptedException {
+        Path input = Path.of(inputFile);
+        long segmentBytes = Math.max(MIN_SEGMENT_BYTES, Math.min(MAX_SEGMENT_BYTES, Files.size(input) / (4L * threads)));
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (MappedPuzzleCorpus corpus = new MappedPuzzleCorpus(input, segmentBytes);
+             MappedSolutionWriter writer = new MappedSolutionWriter(Path.of(outputFile), corpus.records())) {
+            puzzles += corpus.records();
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int s = 0; s < corpus.segments(); s++) {
+                int segment = s;
+                futures.add(pool.submit(() -> {
+                    solveSegment(corpus.segment(segment), writer);
+                    return null;
+                }));
+            }
+            for (Future<Void> future : futures) await(future);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void solveSegment(MappedPuzzleCorpus.Segment segment, MappedSolutionWriter writer) {
+        PackedBoard board = new PackedBoard(SudokuGeometry.CLASSIC);
+        DancingLinksSudokuSolver solver = new DancingLinksSudokuSolver(board);
+        solver.setBudget(budget);
+        while (segment.next(board)) {
+            int[] solution = segment.malformed() ? null : solve(board, solver);
+            writer.write(segment.record(), solution);
+            if (solution != null) solved.increment();
+        }
+    }
+
+    private void submit(ExecutorService pool, Deque<Future<byte[]>> pending, byte[] chunk, int count,
+                        OutputStream out) throws IOException, InterruptedException {
+        puzzles += count;
+        pending.add(pool.submit(() -> solveChunk(chunk, count)));
+
+        // Write finished chunks in order, and block once too many are in flight
+        while (!pending.isEmpty() && (pending.peek().isDone() || pending.size() > 4 * threads)) {
+            out.write(await(pending.poll()));
+        }
+    }
+
+    private static <T> T await(Future<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Batch worker failed", e.getCause());
+        }
+    }
+
+    private byte[] solveChunk(byte[] chunk, int count) {
+        byte[] output = new byte[count * (CELLS + 1)];
+        // One board and one node pool per chunk, refilled for every puzzle
+        PackedBoard board = new PackedBoard(SudokuGeometry.CLASSIC);
+        DancingLinksSudokuSolver solver = new DancingLinksSudokuSolver(board);
+        solver.setBudget(budget);
+        for (int p = 0; p < count; p++) {
+            int offset = p * (CELLS + 1);
+            int[] solution = null;
+            if (chunk[p * CELLS] != MALFORMED) {
+                board.reset(chunk, p * CELLS);
+                solution = solve(board, solver);
+            }
+            for (int cell = 0; cell < CELLS; cell++) {
+                output[offset + cell] = (byte) ('0' + (solution == null ? 0 : solution[cell]));
+            }
+            output[offset + CELLS] = '\n';
+            if (solution != null) solved.increment();
+        }
+        return output;
+    }
+
+    // The flat solution of board, or null if it has none; solver is reset to board
+    // unless the cache answers
+    private int[] solve(PackedBoard board, DancingLinksSudokuSolver solver) {
+        if (cache != null) return solveCached(board);
+        solver.reset(board);
+        int[] solution = solver.findSolution();
+        if (solver.getStatus() == SolveStatus.BUDGET_EXCEEDED) overBudget.increment();
+        return solution;
+    }
+
+    private int[] solveCached(PackedBoard board) {
+        SolveResult result = cache.solve(board.toGrid(), budget);
+        if (result.getStatus() == SolveStatus.BUDGET_EXCEEDED) overBudget.increment();
+        if (!result.isSolved()) return null;
+        int[] cells = new int[CELLS];
+        for (int cell = 0; cell < CELLS; cell++) {
+            cells[cell] = result.get(cell / SIZE, cell % SIZE);
+        }
+        return cells;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: java BatchSudokuSolver <puzzles.txt> <solutions.txt> [threads] [cache size]"
+                    + " [max nodes per puzzle]");
+            return;
+        }
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        int cacheSize = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        SolutionCache cache = cacheSize > 0 ? new SolutionCache(cacheSize) : null;
+
+        BatchSudokuSolver batch = new BatchSudokuSolver(threads, cache);
+        if (args.length > 4) batch.setBudget(SearchBudget.ofNodes(Long.parseLong(args[4])));
+        long start = System.nanoTime();
+        batch.solveMapped(args[0], args[1]);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("Solved " + batch.getSolved() + " of " + batch.getPuzzles() + " puzzles in "
+                + String.format("%.3f", seconds) + " s (" + String.format("%.0f", batch.getPuzzles() / seconds)
+                + " puzzles/sec, " + threads + " threads)");
+        if (batch.getOverBudget() > 0) {
+            System.out.println(batch.getOverBudget() + " puzzles exceeded the budget");
+        }
+        if (cache != null) {
+            System.out.println("Cache: " + cache);
+        }
+    }
+}
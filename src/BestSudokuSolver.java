@@ -1,61 +1,84 @@
-import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
 public class BestSudokuSolver {
 
-    public static void main(String[] args) {
-        // File paths for the step files of each solving method
-        String[] files = {
-                "C:\\Users\\Admin\\IdeaProjects\\sudoku\\relation_residual_steps.txt",
-                "C:\\Users\\Admin\\IdeaProjects\\sudoku\\backtracking_steps.txt",
-                "C:\\Users\\Admin\\IdeaProjects\\sudoku\\constraint_programming_steps.txt",
-                "C:\\Users\\Admin\\IdeaProjects\\sudoku\\stochastic_steps.txt"
-        };
+    private static final long TIME_LIMIT_SECONDS = 10;
 
-        // Create a map to store the number of steps for each method
-        Map<String, Integer> stepsCount = new HashMap<>();
+    // Each method stops itself at the time limit and reports how far it got
+    private static final SearchBudget BUDGET = SearchBudget.ofTime(TIME_LIMIT_SECONDS, TimeUnit.SECONDS);
+    private static final long BACKSTOP_SECONDS = 2 * TIME_LIMIT_SECONDS;
 
-        // Using StepCounter to count steps for each method
-        for (String file : files) {
-            int stepCount = StepCounter.countStepsInFile(file);
-            stepsCount.put(file, stepCount);
-        }
+    public static void main(String[] args) throws InterruptedException {
+        int[][] puzzle = {
+                {4, 0, 0, 1, 7, 5, 0, 0, 2},
+                {2, 0, 0, 3, 6, 9, 7, 0, 0},
+                {0, 0, 0, 0, 0, 8, 0, 9, 0},
+                {5, 3, 1, 0, 0, 7, 9, 0, 4},
+                {8, 2, 0, 0, 9, 4, 6, 0, 0},
+                {0, 0, 0, 0, 0, 3, 0, 0, 0},
+                {0, 6, 0, 0, 0, 0, 3, 0, 0},
+                {0, 0, 0, 0, 3, 0, 0, 0, 0},
+                {0, 0, 4, 0, 0, 0, 0, 6, 1}
+        };
 
-        // Find the method with the fewest steps
-        String bestMethod = getBestMethod(stepsCount);
+        // Run every method in turn and keep the results of the ones that solved the puzzle.
+        // trySolve leaves the filesystem alone, unlike the solvers' own solve methods.
+        List<SudokuSolver> solvers = List.of(
+                new RelationResidualSudokuSolver(puzzle),
+                new BacktrackingSudokuSolver(puzzle),
+                new ConstraintProgrammingSudokuSolver(puzzle),
+                new StochasticSudokuSolver(puzzle),
+                new DancingLinksSudokuSolver(puzzle));
+        Map<String, SolveResult> results = new LinkedHashMap<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            for (SudokuSolver solver : solvers) {
+                solver.setBudget(BUDGET);
+                run(executor, results, solver);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
 
-        // Write the best solution information to a file
-        writeBestSolutionToFile(bestMethod);
+        List<String> ranking = rankMethods(results);
+        for (String method : ranking) {
+            System.out.println(results.get(method));
+        }
+        if (!ranking.isEmpty()) {
+            System.out.println("The best solution for this Sudoku is: " + ranking.get(0));
+        }
     }
 
-    // Method to get the best method with the fewest steps
-    private static String getBestMethod(Map<String, Integer> stepsCount) {
-        String bestMethod = null;
-        int minSteps = Integer.MAX_VALUE;
-
-        // Find the method with the fewest steps
-        for (Map.Entry<String, Integer> entry : stepsCount.entrySet()) {
-            if (entry.getValue() < minSteps) {
-                minSteps = entry.getValue();
-                bestMethod = entry.getKey();
+    // Solves on the executor. The budget normally stops a slow method; the future's
+    // timeout is a backstop for time spent outside the search loop.
+    private static void run(ExecutorService executor, Map<String, SolveResult> results, SudokuSolver solver)
+            throws InterruptedException {
+        Future<SolveResult> future = executor.submit(solver::trySolve);
+        try {
+            SolveResult result = future.get(BACKSTOP_SECONDS, TimeUnit.SECONDS);
+            if (result.isSolved()) {
+                results.put(solver.name(), result);
+            } else {
+                System.out.println(result);
             }
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            System.out.println(solver.name() + ": gave up after " + BACKSTOP_SECONDS + " s");
+        } catch (ExecutionException e) {
+            System.err.println(solver.name() + " failed: " + e.getCause());
         }
+    }
 
-        return bestMethod;
+    // Orders methods by steps taken (placements plus backtracks), then by CPU time
+    public static List<String> rankMethods(Map<String, SolveResult> results) {
+        List<String> ranking = new ArrayList<>(results.keySet());
+        ranking.sort(Comparator.comparingLong((String method) -> steps(results.get(method)))
+                .thenComparingLong(method -> results.get(method).getCpuNanos()));
+        return ranking;
     }
 
-    // Method to write the best solution to a file
-    private static void writeBestSolutionToFile(String bestMethod) {
-        // Extract the method name from the file path
-        String bestMethodName = bestMethod.substring(bestMethod.lastIndexOf("\\") + 1, bestMethod.lastIndexOf("_steps"));
-        String message = "The best solution for this Sudoku is: " + bestMethodName;
-
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter("C:\\Users\\Admin\\IdeaProjects\\sudoku\\best_solution.txt"))) {
-            // Write the best method name to a file
-            writer.write(message);
-            System.out.println(message);
-        } catch (IOException e) {
-            System.err.println("Error writing the best solution to file: " + e.getMessage());
-        }
+    private static long steps(SolveResult result) {
+        return result.getPlacements() + result.getBacktracks();
     }
 }
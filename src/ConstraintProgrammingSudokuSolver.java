@@ -1,121 +1,405 @@
 import java.io.*;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
 
-public class ConstraintProgrammingSudokuSolver {
+public class ConstraintProgrammingSudokuSolver implements SudokuSolver {
 
-    private static final int SIZE = 9;
-    private int[][] board;
+    // Fork/join mode forks one subtask per candidate on this many levels below the root
+    private static final int SPLIT_DEPTH = 3;
+
+    private final int size;
+    private SudokuBoard board;
+    private ConstraintPropagator propagator;
+
+    // The puzzle as loaded, which is what a checkpoint records
+    private final PackedBoard givens;
+    private final SolverMetrics metrics = new SolverMetrics();
+    private TraceSink trace = NoOpTraceSink.INSTANCE;
+    private SearchBudget budget = SearchBudget.UNLIMITED;
+    private SearchBudget.Tracker tracker = SearchBudget.UNLIMITED.start(0);
+    private SolveStatus status = SolveStatus.NOT_STARTED;
+
+    // Counting mode: solutions found so far and where to stop
+    private long solutionCount;
+    private long countLimit;
+
+    // Explicit search stack, one level per branching cell: the cell, the digit placed
+    // there (0 while none), the candidates not tried yet and the trail mark to undo to.
+    // A search stopped by its budget or an interrupt keeps its levels (paused) and the
+    // next solve or count resumes it; saveCheckpoint writes them to a file.
+    private final int[] levelCell;
+    private final int[] levelDigit;
+    private final long[] levelUntried;
+    private final int[] levelMark;
+    private int levels;
+    private boolean paused;
+    private boolean counting;
+
+    // Trail mark of the bare givens, taken when the puzzle is loaded; every new solve or
+    // count undoes to it first, so none starts from an earlier solution or propagation
+    private int givensMark;
+
+    // Set for subtasks of the fork/join search: once a sibling publishes a solution here,
+    // the search unwinds
+    private AtomicReference<int[][]> found;
 
     public ConstraintProgrammingSudokuSolver(int[][] input) {
-        board = new int[SIZE][SIZE];
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                board[i][j] = input[i][j];
-            }
-        }
+        this(new PackedBoard(input));
+    }
+
+    public ConstraintProgrammingSudokuSolver(PackedBoard input) {
+        board = new SudokuBoard(input);
+        size = board.geometry().size;
+        propagator = new ConstraintPropagator(board);
+        givens = new PackedBoard(input.geometry());
+        givens.reset(input);
+        int cells = board.geometry().cells;
+        levelCell = new int[cells];
+        levelDigit = new int[cells];
+        levelUntried = new long[cells];
+        levelMark = new int[cells];
+        givensMark = propagator.mark();
+    }
+
+    // Loads another puzzle of the same size into this solver's board and candidate arrays,
+    // so a batch needs no per-puzzle allocation; metrics keep accumulating
+    public void reset(PackedBoard input) {
+        board.reset(input);
+        propagator.reset();
+        givens.reset(input);
+        levels = 0;
+        paused = false;
+        givensMark = propagator.mark();
+    }
+
+    // Cells filled by propagation versus by search decisions, backtracked ones included
+    public long getPropagatedCells() {
+        return propagator.getPropagatedCells();
+    }
+
+    public long getSearchPlacements() {
+        return metrics.placements;
     }
 
     public boolean solveWithBacktracking() {
-        List<String> steps = new ArrayList<>();
-        if (backtrackSolve(steps)) {
+        if (trySolve().isSolved()) {
             writeSolutionToFile("constraint_programming_solution.txt");
-            writeStepsToFile(steps, "constraint_programming_steps.txt");
+            writeStepsToFile("constraint_programming_steps.txt");
             return true;
         } else {
             return false;
         }
     }
 
-    private boolean backtrackSolve(List<String> steps) {
-        int row = -1, col = -1;
-        boolean emptyFound = false;
+    @Override
+    public String name() {
+        return "constraint_programming";
+    }
+
+    @Override
+    public SolveResult trySolve() {
+        SolverMetrics before = metrics.copy();
+        tracker = budget.start(metrics.nodesVisited);
+        metrics.start();
+        boolean solved;
+        if (paused && !counting) {
+            solved = search(); // carry on where the budget or an interrupt stopped it
+        } else {
+            restart(false);
+            solved = propagator.propagate() && search();
+        }
+        if (solved) levels = 0; // the solution stays on the board
+        metrics.propagations = propagator.getPropagatedCells();
+        metrics.stop();
+        status = tracker.status(solved);
+        return new SolveResult(name(), status, solved ? board.toGrid() : null, before, metrics);
+    }
+
+    // Splits the top levels of the search tree across a fork/join pool. Each subtask
+    // rebuilds its solver from a copy of the grid (the compact state) and propagates it
+    // again, and the first solution found stops all the others. The winner is replayed
+    // through this solver's propagator, so its trail covers the solution as after trySolve,
+    // and like trySolve it writes no files.
+    public SolveResult solveParallel(int threads) {
+        restart(false);
+        SolverMetrics before = metrics.copy();
+        AtomicReference<int[][]> result = new AtomicReference<>();
+        tracker = budget.start(metrics.nodesVisited);
+        // Every subtask forks the shared tracker, so the node limit covers the whole search
+        SearchTask root = new SearchTask(board.toGrid(), 0, result, tracker.shared());
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        metrics.start();
+        try {
+            pool.invoke(root);
+        } finally {
+            pool.shutdownNow();
+            metrics.add(root.metrics);
+            metrics.stop();
+        }
 
-        // Apply Minimum Remaining Values (MRV) heuristic
-        List<int[]> emptyCells = new ArrayList<>();
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                if (board[i][j] == 0) {
-                    emptyCells.add(new int[]{i, j});
-                }
+        int[][] solution = result.get();
+        status = solution == null && root.exceeded ? SolveStatus.BUDGET_EXCEEDED : tracker.status(solution != null);
+        if (solution == null) return new SolveResult(name(), status, null, before, metrics);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                // Cells the propagation of earlier ones has filled are skipped
+                if (board.isEmpty(i, j)) propagator.assign(i * size + j, solution[i][j]);
             }
         }
+        return new SolveResult(name(), status, board.toGrid(), before, metrics);
+    }
 
-        if (emptyCells.isEmpty()) return true;
+    // One subtree of the fork/join search; its metrics and budget overrun include those
+    // of its children
+    private static final class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
 
-        // Use MRV - choose the cell with the fewest possible values
-        emptyCells.sort(Comparator.comparingInt(cell -> countValidValues(cell[0], cell[1])));
-        int[] selectedCell = emptyCells.get(0);
-        row = selectedCell[0];
-        col = selectedCell[1];
+        private final int[][] grid;
+        private final int depth;
+        private final AtomicReference<int[][]> found;
+        private final SearchBudget.Tracker budget;
+        private final SolverMetrics metrics = new SolverMetrics();
+        private boolean exceeded;
 
-        for (int num = 1; num <= 9; num++) {
-            if (isValid(row, col, num)) {
-                board[row][col] = num;
-                steps.add("Step: (" + row + "," + col + ") = " + num + " (Placed)");
+        SearchTask(int[][] grid, int depth, AtomicReference<int[][]> found, SearchBudget.Tracker budget) {
+            this.grid = grid;
+            this.depth = depth;
+            this.found = found;
+            this.budget = budget;
+        }
 
-                // Apply forward checking - propagate constraints
-                if (backtrackSolve(steps)) {
-                    return true;
+        @Override
+        protected void compute() {
+            if (found.get() != null) return;
+            // Subtasks still queued when the shared budget runs out stop before their first node
+            SearchBudget.Tracker tracker = budget.fork(0);
+            if (tracker.exceeded(0)) {
+                exceeded = true;
+                return;
+            }
+            ConstraintProgrammingSudokuSolver solver = new ConstraintProgrammingSudokuSolver(grid);
+            solver.found = found;
+            solver.tracker = tracker;
+
+            // Only this task's own work is timed, on whichever worker runs it
+            solver.metrics.start();
+            List<SearchTask> children = new ArrayList<>();
+            if (solver.propagator.propagate()) {
+                int cell = solver.chooseCell();
+                if (cell >= 0 && depth < SPLIT_DEPTH) {
+                    // The split node counts against the budget too; nothing is forked once it is spent
+                    solver.metrics.nodesVisited++;
+                    long candidates = solver.tracker.exceeded(solver.metrics.nodesVisited) ? 0 : solver.propagator.candidates(cell);
+                    while (candidates != 0) {
+                        long bit = candidates & -candidates;
+                        candidates ^= bit;
+                        int[][] child = solver.board.toGrid();
+                        child[cell / solver.size][cell % solver.size] = Long.numberOfTrailingZeros(bit) + 1;
+                        children.add(new SearchTask(child, depth + 1, found, budget));
+                    }
+                } else if (solver.search()) {
+                    found.compareAndSet(null, solver.board.toGrid());
                 }
+            }
+            solver.metrics.propagations = solver.propagator.getPropagatedCells();
+            solver.metrics.stop();
+            metrics.add(solver.metrics);
+            exceeded = solver.tracker.isExceeded();
 
-                board[row][col] = 0;
-                steps.add("Step: (" + row + "," + col + ") = " + num + " (Backtracked)");
+            invokeAll(children);
+            for (SearchTask child : children) {
+                metrics.add(child.metrics);
+                exceeded |= child.exceeded;
             }
         }
-        return false;
     }
 
-    private boolean isValid(int row, int col, int num) {
-        for (int i = 0; i < SIZE; i++) {
-            if (board[row][i] == num || board[i][col] == num) {
+    // Counts solutions up to limit (2 is enough to tell a unique puzzle from an ambiguous
+    // one); 0 means unsolvable. Branches are undone on the propagator's trail rather than
+    // re-propagated, and the board is back to the givens afterwards. A count stopped by
+    // the budget resumes on the next call, keeping the solutions found so far.
+    public long countSolutions(long limit) {
+        countLimit = limit;
+        tracker = budget.start(metrics.nodesVisited);
+        metrics.start();
+        if (!paused || !counting) {
+            restart(true);
+            solutionCount = 0;
+            if (propagator.propagate() && solutionCount < limit) search();
+        } else if (solutionCount < limit) {
+            search();
+        }
+        if (!paused) {
+            propagator.undo(givensMark);
+            levels = 0;
+        }
+        metrics.propagations = propagator.getPropagatedCells();
+        metrics.stop();
+        status = tracker.countStatus(solutionCount);
+        return solutionCount;
+    }
+
+    public boolean hasUniqueSolution() {
+        return countSolutions(2) == 1;
+    }
+
+    // Where placements and backtracks are recorded; nothing is kept by default
+    public void setTraceSink(TraceSink trace) {
+        this.trace = trace;
+    }
+
+    // Node and wall-clock limits for each solve; unlimited by default. In fork/join mode
+    // both cover the whole search, across all subtasks.
+    @Override
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    // How the last solve or count ended, e.g. BUDGET_EXCEEDED with partial counts in getMetrics
+    public SolveStatus getStatus() {
+        return status;
+    }
+
+    public SolverMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int[][] getSolution() {
+        return board.toGrid();
+    }
+
+    // Drops any paused search, puts the board back to the givens and starts a new one
+    private void restart(boolean counting) {
+        propagator.undo(givensMark);
+        levels = 0;
+        paused = false;
+        this.counting = counting;
+    }
+
+    // Depth-first search on the level stack, entering one node per pass. Returns true
+    // with a solution on the board when finding; false once the tree is exhausted or the
+    // count limit reached, or when stopped, which leaves the search paused at this node
+    private boolean search() {
+        while (true) {
+            // Cooperative cancellation, e.g. when another solver won the race or a sibling
+            // subtask found the solution
+            if (Thread.currentThread().isInterrupted() || (found != null && found.get() != null)
+                    || tracker.exceeded(metrics.nodesVisited)) {
+                paused = true;
                 return false;
             }
+            metrics.nodesVisited++;
+
+            int cell = chooseCell();
+            if (cell >= 0) {
+                levelCell[levels] = cell;
+                levelDigit[levels] = 0;
+                levelUntried[levels] = propagator.candidates(cell);
+                levelMark[levels] = propagator.mark();
+                levels++;
+            } else if (!counting) {
+                paused = false;
+                return true;
+            } else if (++solutionCount >= countLimit) {
+                break;
+            }
+            if (!advance()) break;
         }
-        int startRow = row - row % 3, startCol = col - col % 3;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i + startRow][j + startCol] == num) {
-                    return false;
+        paused = false;
+        return false;
+    }
+
+    // Moves to the next branch: takes back the deepest level's digit and places its next
+    // candidate, dropping levels that have none left. False once the root is used up.
+    private boolean advance() {
+        while (levels > 0) {
+            int level = levels - 1;
+            int cell = levelCell[level];
+            if (levelDigit[level] != 0) {
+                propagator.undo(levelMark[level]);
+                metrics.backtracks++;
+                trace.record(cell, levelDigit[level], TraceSink.BACKTRACKED);
+                levelDigit[level] = 0;
+            }
+            while (levelUntried[level] != 0) {
+                long bit = levelUntried[level] & -levelUntried[level];
+                levelUntried[level] ^= bit;
+                int num = Long.numberOfTrailingZeros(bit) + 1;
+                metrics.placements++;
+                trace.record(cell, num, TraceSink.PLACED);
+
+                // Propagate constraints to a fixpoint; a contradiction prunes the branch
+                if (propagator.assign(cell, num)) {
+                    levelDigit[level] = num;
+                    return true;
                 }
+                propagator.undo(levelMark[level]);
+                metrics.backtracks++;
+                trace.record(cell, num, TraceSink.BACKTRACKED);
             }
+            levels--;
         }
-        return true;
+        return false;
+    }
+
+    // Writes the paused search to file: the givens, whether it is a solve or a count, the
+    // solutions counted so far and the branch cursors of every open level
+    public void saveCheckpoint(Path file) throws IOException {
+        if (!paused) throw new IllegalStateException("No paused search to checkpoint");
+        new SearchCheckpoint(name(), givens, counting, solutionCount, Arrays.copyOf(levelCell, levels),
+                Arrays.copyOf(levelDigit, levels), Arrays.copyOf(levelUntried, levels)).write(file);
     }
 
-    private int countValidValues(int row, int col) {
-        int count = 0;
-        for (int num = 1; num <= 9; num++) {
-            if (isValid(row, col, num)) {
-                count++;
+    // A solver paused where saveCheckpoint left off, rebuilt by propagating the givens and
+    // replaying each level's digit; continue it with trySolve or countSolutions, whichever
+    // was running. Metrics start from zero.
+    public static ConstraintProgrammingSudokuSolver resumeFrom(Path file) throws IOException {
+        SearchCheckpoint checkpoint = SearchCheckpoint.read(file, "constraint_programming");
+        ConstraintProgrammingSudokuSolver solver = new ConstraintProgrammingSudokuSolver(checkpoint.givens);
+        ConstraintPropagator propagator = solver.propagator;
+        solver.restart(checkpoint.counting);
+        solver.solutionCount = checkpoint.solutionCount;
+        if (!propagator.propagate()) throw new IOException("Checkpoint givens have no solution");
+        for (int level = 0; level < checkpoint.levels(); level++) {
+            int cell = checkpoint.cells[level], num = checkpoint.digits[level];
+            solver.levelCell[level] = cell;
+            solver.levelDigit[level] = num;
+            solver.levelUntried[level] = checkpoint.untried[level];
+            solver.levelMark[level] = propagator.mark();
+            if (!propagator.assign(cell, num)) {
+                throw new IOException("Checkpoint does not replay at level " + level);
             }
         }
-        return count;
+        solver.levels = checkpoint.levels();
+        solver.paused = true;
+        return solver;
+    }
+
+    // The empty cell to branch on next, or -1 once the board is full: Minimum Remaining
+    // Values, ties going to the cell with most empty peers, read off the propagator's queue
+    private int chooseCell() {
+        return propagator.mostConstrainedCell();
+    }
+
+    int countValidValues(int row, int col) {
+        return Long.bitCount(propagator.candidates(row * size + col));
     }
 
     private void writeSolutionToFile(String fileName) {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
-            for (int i = 0; i < SIZE; i++) {
-                for (int j = 0; j < SIZE; j++) {
-                    writer.write(board[i][j] + " ");
-                    if (j == 2 || j == 5) writer.write("| ");
-                }
-                writer.newLine();
-                if (i == 2 || i == 5) {
-                    writer.write("------+-------+------");
-                    writer.newLine();
-                }
-            }
+            board.geometry().writeGrid(writer, board.toGrid());
         } catch (IOException e) {
             System.err.println("Error writing solution to file: " + e.getMessage());
         }
     }
 
-    private void writeStepsToFile(List<String> steps, String fileName) {
+    private void writeStepsToFile(String fileName) {
+        if (!trace.isEnabled()) return;
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
-            for (String step : steps) {
-                writer.write(step);
-                writer.newLine();
-            }
+            trace.writeTo(writer, size);
         } catch (IOException e) {
             System.err.println("Error writing steps to file: " + e.getMessage());
         }
@@ -0,0 +1,258 @@
+public class ConstraintPropagator {
+
+    // Trail entries for a placement carry this flag on top of the cell index
+    private static final int PLACED = 1 << 16;
+
+    private final SudokuBoard board;
+    private final SudokuGeometry geometry;
+    private final int size;
+
+    // Candidate bitmask per cell, narrower than the board's occupancy masks once
+    // locked candidates start eliminating; 0 for filled cells
+    private final long[] candidates;
+
+    // Undo log: cell (or cell | PLACED) and the mask it had before the change
+    private final int[] trailCells;
+    private final long[] trailMasks;
+    private int trailSize;
+
+    // Scratch for locked candidates: digits seen per segment of a box or line
+    private final long[] segments;
+    private final long[] crossSegments;
+
+    private long propagatedCells;
+
+    // Empty cells ordered for branching, kept in step with every candidate change
+    private final MrvQueue queue;
+
+    public ConstraintPropagator(SudokuBoard board) {
+        this.board = board;
+        geometry = board.geometry();
+        size = geometry.size;
+        candidates = new long[geometry.cells];
+        trailCells = new int[geometry.cells * size];
+        trailMasks = new long[geometry.cells * size];
+        segments = new long[size];
+        crossSegments = new long[size];
+        for (int cell = 0; cell < geometry.cells; cell++) {
+            if (board.isEmpty(cell / size, cell % size)) {
+                candidates[cell] = board.candidates(cell / size, cell % size);
+            }
+        }
+        queue = new MrvQueue(geometry);
+        queue.build(board, candidates);
+    }
+
+    // Re-reads the candidates after the board was reset to a new puzzle; the trail is
+    // dropped, the propagation count keeps accumulating
+    public void reset() {
+        trailSize = 0;
+        for (int cell = 0; cell < geometry.cells; cell++) {
+            candidates[cell] = board.isEmpty(cell / size, cell % size) ? board.candidates(cell / size, cell % size) : 0;
+        }
+        queue.build(board, candidates);
+    }
+
+    public long candidates(int cell) {
+        return candidates[cell];
+    }
+
+    // The empty cell to branch on: fewest candidates, then most empty peers; -1 when full
+    public int mostConstrainedCell() {
+        return queue.best();
+    }
+
+    // Cells filled by propagation so far, including ones later undone by backtracking
+    public long getPropagatedCells() {
+        return propagatedCells;
+    }
+
+    public int mark() {
+        return trailSize;
+    }
+
+    public void undo(int mark) {
+        while (trailSize > mark) {
+            int entry = trailCells[--trailSize];
+            int cell = entry & ~PLACED;
+            candidates[cell] = trailMasks[trailSize];
+            if ((entry & PLACED) != 0) {
+                board.unplace(cell / size, cell % size);
+                queue.unfill(cell, candidates[cell]);
+            } else {
+                queue.update(cell, candidates[cell]);
+            }
+        }
+    }
+
+    // Places num at cell and propagates to a fixpoint; false on contradiction,
+    // in which case the caller undoes to its mark
+    public boolean assign(int cell, int num) {
+        if ((candidates[cell] & (1L << (num - 1))) == 0) return false;
+        return place(cell, num) && propagate();
+    }
+
+    // Runs naked singles, hidden singles and locked candidates until nothing changes
+    public boolean propagate() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            // Naked singles: a cell with exactly one candidate left
+            for (int cell = 0; cell < geometry.cells; cell++) {
+                long mask = candidates[cell];
+                if (mask != 0 && (mask & (mask - 1)) == 0) {
+                    if (!place(cell, Long.numberOfTrailingZeros(mask) + 1)) return false;
+                    propagatedCells++;
+                    changed = true;
+                } else if (mask == 0 && board.isEmpty(cell / size, cell % size)) {
+                    return false;
+                }
+            }
+
+            // Hidden singles: a digit with only one possible cell in a unit
+            for (int unit = 0; unit < geometry.units; unit++) {
+                int[] unitCells = geometry.unit(unit);
+                long placed = 0, once = 0, twice = 0;
+                for (int cell : unitCells) {
+                    int num = board.get(cell / size, cell % size);
+                    if (num != 0) {
+                        placed |= 1L << (num - 1);
+                    } else {
+                        twice |= once & candidates[cell];
+                        once |= candidates[cell];
+                    }
+                }
+                if ((placed | once) != geometry.allDigits) return false; // some digit has nowhere to go
+                long hidden = once & ~twice & ~placed;
+                while (hidden != 0) {
+                    long bit = hidden & -hidden;
+                    hidden ^= bit;
+                    for (int cell : unitCells) {
+                        if ((candidates[cell] & bit) != 0) {
+                            if (!place(cell, Long.numberOfTrailingZeros(bit) + 1)) return false;
+                            propagatedCells++;
+                            changed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+
+            // Locked candidates are dearer, so only try them once singles are exhausted
+            if (!changed) {
+                int result = eliminateLockedCandidates();
+                if (result < 0) return false;
+                changed = result > 0;
+            }
+        }
+        return true;
+    }
+
+    // Returns -1 on contradiction, otherwise the number of candidates removed
+    private int eliminateLockedCandidates() {
+        int removed = 0;
+        int boxRows = geometry.boxRows, boxCols = geometry.boxCols;
+
+        // Pointing: a digit confined to one row (or column) of a box leaves the
+        // rest of that row (or column)
+        for (int box = 0; box < size; box++) {
+            int[] boxCells = geometry.unit(2 * size + box);
+            for (int k = 0; k < boxRows; k++) segments[k] = 0;
+            for (int k = 0; k < boxCols; k++) crossSegments[k] = 0;
+            for (int k = 0; k < size; k++) {
+                segments[k / boxCols] |= candidates[boxCells[k]];
+                crossSegments[k % boxCols] |= candidates[boxCells[k]];
+            }
+            long multiRow = repeated(segments, boxRows), multiCol = repeated(crossSegments, boxCols);
+            int firstRow = (box / boxRows) * boxRows, firstCol = (box % boxRows) * boxCols;
+            for (int k = 0; k < boxRows; k++) {
+                int r = eliminateOutsideBox(geometry.unit(firstRow + k), box, segments[k] & ~multiRow);
+                if (r < 0) return -1;
+                removed += r;
+            }
+            for (int k = 0; k < boxCols; k++) {
+                int c = eliminateOutsideBox(geometry.unit(size + firstCol + k), box, crossSegments[k] & ~multiCol);
+                if (c < 0) return -1;
+                removed += c;
+            }
+        }
+
+        // Claiming: a digit confined to one box within a row (or column) leaves
+        // the rest of that box
+        for (int line = 0; line < 2 * size; line++) {
+            int[] lineCells = geometry.unit(line);
+            boolean isRow = line < size;
+            int width = isRow ? boxCols : boxRows, count = size / width;
+            for (int k = 0; k < count; k++) segments[k] = 0;
+            for (int k = 0; k < size; k++) segments[k / width] |= candidates[lineCells[k]];
+            long multi = repeated(segments, count);
+            for (int k = 0; k < count; k++) {
+                long only = segments[k] & ~multi;
+                if (only == 0) continue;
+                int box = geometry.boxOf(lineCells[k * width]);
+                for (int cell : geometry.unit(2 * size + box)) {
+                    boolean onLine = isRow ? cell / size == line : cell % size == line - size;
+                    if (onLine) continue;
+                    int r = eliminate(cell, only);
+                    if (r < 0) return -1;
+                    removed += r;
+                }
+            }
+        }
+        return removed;
+    }
+
+    // Digits that appear in more than one of the first count segments
+    private static long repeated(long[] segments, int count) {
+        long seen = 0, multi = 0;
+        for (int k = 0; k < count; k++) {
+            multi |= seen & segments[k];
+            seen |= segments[k];
+        }
+        return multi;
+    }
+
+    private int eliminateOutsideBox(int[] lineCells, int box, long bits) {
+        if (bits == 0) return 0;
+        int removed = 0;
+        for (int cell : lineCells) {
+            if (geometry.boxOf(cell) == box) continue;
+            int r = eliminate(cell, bits);
+            if (r < 0) return -1;
+            removed += r;
+        }
+        return removed;
+    }
+
+    private int eliminate(int cell, long bits) {
+        long mask = candidates[cell];
+        if ((mask & bits) == 0) return 0;
+        setCandidates(cell, mask & ~bits);
+        return mask == (mask & bits) ? -1 : 1;
+    }
+
+    private boolean place(int cell, int num) {
+        long bit = 1L << (num - 1);
+        trailCells[trailSize] = cell | PLACED;
+        trailMasks[trailSize++] = candidates[cell];
+        candidates[cell] = 0;
+        board.place(cell / size, cell % size, num);
+        queue.fill(cell);
+        for (int peer : geometry.peers(cell)) {
+            long mask = candidates[peer];
+            if ((mask & bit) != 0) {
+                if (mask == bit) return false; // peer would be left with nothing
+                setCandidates(peer, mask & ~bit);
+            }
+        }
+        return true;
+    }
+
+    private void setCandidates(int cell, long mask) {
+        trailCells[trailSize] = cell;
+        trailMasks[trailSize++] = candidates[cell];
+        candidates[cell] = mask;
+        queue.update(cell, mask);
+    }
+}
@@ -0,0 +1,448 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public class DancingLinksSudokuSolver implements SudokuSolver {
+
+    private static final int ROOT = 0;
+
+    // Subproblems per thread when splitting a count, so uneven subtrees balance out
+    private static final int SPLIT_FACTOR = 8;
+
+    private final SudokuGeometry geometry;
+    private final int size;
+    private final int cellCount;
+
+    // Exact cover matrix: one column per constraint (cell, row-digit, column-digit,
+    // box-digit) and one row per candidate placement (cell, digit)
+    private final int columns;
+    private final int rows;
+
+    // Node pool: index 0 is the root, 1..columns are column headers, the rest are
+    // the four nodes of each matrix row, stored consecutively
+    private final int[] left;
+    private final int[] right;
+    private final int[] up;
+    private final int[] down;
+    private final int[] column;
+    private final int[] rowId;
+    private final int[] columnSize;
+    private final boolean[] givenCovered;
+
+    // Vertical links of the full matrix, copied back on reset. Covering only ever rewires
+    // these and the header row; the horizontal links of matrix rows never change.
+    private final int[] initialUp;
+    private final int[] initialDown;
+
+    private final int[][] givens;
+    private final int[] cells;
+    private final int[] solution;
+    private boolean consistent = true;
+
+    // Counting mode: solutions found so far and where to stop
+    private long solutionCount;
+    private long countLimit;
+    private final SolverMetrics metrics = new SolverMetrics();
+    private TraceSink trace = NoOpTraceSink.INSTANCE;
+    private SearchBudget budget = SearchBudget.UNLIMITED;
+    private SearchBudget.Tracker tracker = SearchBudget.UNLIMITED.start(0);
+    private SolveStatus status = SolveStatus.NOT_STARTED;
+
+    public DancingLinksSudokuSolver(int[][] input) {
+        this(new PackedBoard(input));
+    }
+
+    public DancingLinksSudokuSolver(PackedBoard input) {
+        geometry = input.geometry();
+        size = geometry.size;
+        cellCount = geometry.cells;
+        columns = 4 * cellCount;
+        rows = cellCount * size;
+        int nodes = 1 + columns + 4 * rows;
+        left = new int[nodes];
+        right = new int[nodes];
+        up = new int[nodes];
+        down = new int[nodes];
+        column = new int[nodes];
+        rowId = new int[nodes];
+        columnSize = new int[columns + 1];
+        givenCovered = new boolean[columns + 1];
+        cells = new int[cellCount];
+        solution = new int[cellCount];
+        givens = new int[size][size];
+
+        buildMatrix();
+        initialUp = up.clone();
+        initialDown = down.clone();
+        reset(input);
+    }
+
+    // Loads another puzzle of the same size by restoring the existing node pool, which is
+    // far cheaper than allocating and linking a new one; metrics keep accumulating
+    public void reset(PackedBoard input) {
+        if (input.geometry() != geometry) {
+            throw new IllegalArgumentException("Solver is " + size + "x" + size + ", not " + input.geometry().size);
+        }
+        for (int c = 0; c <= columns; c++) {
+            left[c] = c == 0 ? columns : c - 1;
+            right[c] = c == columns ? 0 : c + 1;
+        }
+        System.arraycopy(initialUp, 0, up, 0, up.length);
+        System.arraycopy(initialDown, 0, down, 0, down.length);
+        Arrays.fill(columnSize, 1, columns + 1, size); // every constraint has size candidates
+        Arrays.fill(givenCovered, false);
+        Arrays.fill(cells, 0);
+        consistent = true;
+
+        for (int cell = 0; cell < cellCount; cell++) {
+            int num = input.get(cell);
+            givens[cell / size][cell % size] = num;
+            if (num != 0) {
+                cells[cell] = num;
+                consistent &= selectGiven(cell / size, cell % size, num);
+            }
+        }
+    }
+
+    private void buildMatrix() {
+        for (int c = 0; c <= columns; c++) {
+            left[c] = c == 0 ? columns : c - 1;
+            right[c] = c == columns ? 0 : c + 1;
+            up[c] = c;
+            down[c] = c;
+            column[c] = c;
+            rowId[c] = -1;
+        }
+
+        int node = columns + 1;
+        for (int id = 0; id < rows; id++) {
+            int cell = id / size, digit = id % size;
+            int row = cell / size, col = cell % size;
+            int first = node;
+            appendNode(node++, id, 1 + cell);
+            appendNode(node++, id, 1 + cellCount + row * size + digit);
+            appendNode(node++, id, 1 + 2 * cellCount + col * size + digit);
+            appendNode(node++, id, 1 + 3 * cellCount + geometry.box(row, col) * size + digit);
+            for (int k = 0; k < 4; k++) {
+                left[first + k] = first + (k + 3) % 4;
+                right[first + k] = first + (k + 1) % 4;
+            }
+        }
+    }
+
+    private void appendNode(int node, int id, int header) {
+        column[node] = header;
+        rowId[node] = id;
+        up[node] = up[header];
+        down[node] = header;
+        down[up[header]] = node;
+        up[header] = node;
+        columnSize[header]++;
+    }
+
+    private int firstNode(int id) {
+        return columns + 1 + 4 * id;
+    }
+
+    // Removes the given's constraints up front; false if it clashes with an earlier given
+    private boolean selectGiven(int row, int col, int num) {
+        int first = firstNode((row * size + col) * size + num - 1);
+        int node = first;
+        do {
+            int header = column[node];
+            if (givenCovered[header]) return false;
+            givenCovered[header] = true;
+            cover(header);
+            node = right[node];
+        } while (node != first);
+        return true;
+    }
+
+    public boolean solve() {
+        if (trySolve().isSolved()) {
+            writeSolutionToFile("dancing_links_solution.txt");
+            writeStepsToFile("dancing_links_steps.txt");
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public String name() {
+        return "dancing_links";
+    }
+
+    @Override
+    public SolveResult trySolve() {
+        SolverMetrics before = metrics.copy();
+        tracker = budget.start(metrics.nodesVisited);
+        metrics.start();
+        boolean solved = consistent && search(0);
+        metrics.stop();
+        status = tracker.status(solved);
+        return new SolveResult(name(), status, solved ? getSolution() : null, before, metrics);
+    }
+
+    // Solves without touching the filesystem: the flat row-major grid, or null if unsolvable
+    public int[] findSolution() {
+        tracker = budget.start(metrics.nodesVisited);
+        metrics.start();
+        boolean solved = consistent && search(0);
+        metrics.stop();
+        status = tracker.status(solved);
+        return solved ? cells.clone() : null;
+    }
+
+    // Counts solutions up to limit (2 is enough to tell a unique puzzle from an ambiguous
+    // one); 0 means unsolvable. The first solution found is kept for getSolution
+    public long countSolutions(long limit) {
+        tracker = budget.start(metrics.nodesVisited);
+        countFrom(limit);
+        status = tracker.countStatus(solutionCount);
+        return solutionCount;
+    }
+
+    private void countFrom(long limit) {
+        solutionCount = 0;
+        countLimit = limit;
+        metrics.start();
+        if (consistent) count(0);
+        metrics.stop();
+    }
+
+    public boolean hasUniqueSolution() {
+        return countSolutions(2) == 1;
+    }
+
+    // Splits the search tree on the most constrained cells into independent subpuzzles
+    // and counts them on separate threads, each with its own matrix. Once the running
+    // total reaches limit the remaining subtrees are interrupted. The budget's deadline
+    // covers the whole count and its node limit each subpuzzle.
+    public long countSolutionsParallel(long limit, int threads) throws InterruptedException {
+        tracker = budget.start(metrics.nodesVisited);
+        SearchBudget.Tracker shared = tracker;
+        List<int[][]> subproblems = split(threads * SPLIT_FACTOR);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CompletionService<DancingLinksSudokuSolver> completion = new ExecutorCompletionService<>(pool);
+        List<Future<DancingLinksSudokuSolver>> futures = new ArrayList<>();
+        for (int[][] subproblem : subproblems) {
+            futures.add(completion.submit(() -> {
+                DancingLinksSudokuSolver part = new DancingLinksSudokuSolver(subproblem);
+                part.tracker = shared.fork(0);
+                part.countFrom(limit);
+                return part;
+            }));
+        }
+
+        long total = 0;
+        boolean exceeded = false;
+        metrics.start();
+        try {
+            for (int done = 0; done < futures.size() && total < limit; done++) {
+                DancingLinksSudokuSolver part = completion.take().get();
+                if (total == 0 && part.solutionCount > 0) {
+                    System.arraycopy(part.cells, 0, cells, 0, cellCount);
+                }
+                total += part.solutionCount;
+                exceeded |= part.tracker.isExceeded();
+                metrics.add(part.metrics);
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Counting failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+            metrics.stop();
+        }
+        // Reaching the limit settles the count even if some subpuzzle ran out of budget
+        status = total < limit && exceeded ? SolveStatus.BUDGET_EXCEEDED : tracker.countStatus(total);
+        return Math.min(total, limit);
+    }
+
+    // Expands the givens breadth-first, one most-constrained cell at a time, until there
+    // are at least target subpuzzles or nothing is left to branch on
+    private List<int[][]> split(int target) {
+        Deque<int[][]> frontier = new ArrayDeque<>();
+        List<int[][]> complete = new ArrayList<>();
+        frontier.add(givens);
+        while (!frontier.isEmpty() && frontier.size() + complete.size() < target) {
+            int[][] grid = frontier.poll();
+            SudokuBoard board = new SudokuBoard(grid, geometry);
+            int best = -1;
+            for (int cell = 0; cell < cellCount; cell++) {
+                if (!board.isEmpty(cell / size, cell % size)) continue;
+                if (best < 0 || board.countCandidates(cell / size, cell % size)
+                        < board.countCandidates(best / size, best % size)) {
+                    best = cell;
+                }
+            }
+            if (best < 0) {
+                complete.add(grid);
+                continue;
+            }
+            long candidates = board.candidates(best / size, best % size);
+            while (candidates != 0) {
+                long bit = candidates & -candidates;
+                candidates ^= bit;
+                int[][] child = new int[size][];
+                for (int i = 0; i < size; i++) child[i] = grid[i].clone();
+                child[best / size][best % size] = Long.numberOfTrailingZeros(bit) + 1;
+                frontier.add(child);
+            }
+        }
+        complete.addAll(frontier);
+        return complete;
+    }
+
+    // Where placements and backtracks are recorded; nothing is kept by default
+    public void setTraceSink(TraceSink trace) {
+        this.trace = trace;
+    }
+
+    // Node and wall-clock limits for each solve or count; unlimited by default
+    @Override
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
+    }
+
+    // How the last solve or count ended, e.g. BUDGET_EXCEEDED with partial counts in getMetrics
+    public SolveStatus getStatus() {
+        return status;
+    }
+
+    public SolverMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int[][] getSolution() {
+        int[][] grid = new int[size][size];
+        for (int cell = 0; cell < cellCount; cell++) {
+            grid[cell / size][cell % size] = cells[cell];
+        }
+        return grid;
+    }
+
+    // Knuth's Algorithm X over the linked node pool. The matrix is uncovered again on the
+    // way out whether or not a solution was found; cells keeps the solution.
+    private boolean search(int depth) {
+        // Cooperative cancellation, e.g. when another solver won the race, and the budget
+        if (Thread.currentThread().isInterrupted()) return false;
+        if (tracker.exceeded(metrics.nodesVisited)) return false;
+        metrics.nodesVisited++;
+
+        if (right[ROOT] == ROOT) {
+            for (int k = 0; k < depth; k++) {
+                int id = rowId[solution[k]];
+                cells[id / size] = id % size + 1;
+            }
+            return true;
+        }
+
+        // Choose the constraint with the fewest remaining options
+        int header = right[ROOT];
+        for (int c = right[header]; c != ROOT; c = right[c]) {
+            if (columnSize[c] < columnSize[header]) header = c;
+        }
+        if (columnSize[header] == 0) return false;
+
+        cover(header);
+        for (int r = down[header]; r != header; r = down[r]) {
+            int id = rowId[r];
+            int cell = id / size, num = id % size + 1;
+            solution[depth] = r;
+            metrics.placements++;
+            trace.record(cell, num, TraceSink.PLACED);
+            for (int j = right[r]; j != r; j = right[j]) cover(column[j]);
+
+            boolean solved = search(depth + 1);
+            for (int j = left[r]; j != r; j = left[j]) uncover(column[j]);
+            if (solved) {
+                // Unwound all the same, so the next solve or count starts from the givens
+                uncover(header);
+                return true;
+            }
+
+            metrics.backtracks++;
+            trace.record(cell, num, TraceSink.BACKTRACKED);
+            if (tracker.isExceeded()) break; // no sibling is tried once the budget is gone
+        }
+        uncover(header);
+        return false;
+    }
+
+    // Algorithm X without the early return: every branch is covered and uncovered again
+    private void count(int depth) {
+        if (Thread.currentThread().isInterrupted()) return;
+        if (tracker.exceeded(metrics.nodesVisited)) return;
+        metrics.nodesVisited++;
+
+        if (right[ROOT] == ROOT) {
+            if (solutionCount++ == 0) {
+                for (int k = 0; k < depth; k++) {
+                    int id = rowId[solution[k]];
+                    cells[id / size] = id % size + 1;
+                }
+            }
+            return;
+        }
+
+        int header = right[ROOT];
+        for (int c = right[header]; c != ROOT; c = right[c]) {
+            if (columnSize[c] < columnSize[header]) header = c;
+        }
+        if (columnSize[header] == 0) return;
+
+        cover(header);
+        for (int r = down[header]; r != header && solutionCount < countLimit; r = down[r]) {
+            solution[depth] = r;
+            metrics.placements++;
+            for (int j = right[r]; j != r; j = right[j]) cover(column[j]);
+            count(depth + 1);
+            for (int j = left[r]; j != r; j = left[j]) uncover(column[j]);
+            metrics.backtracks++;
+            if (tracker.isExceeded()) break;
+        }
+        uncover(header);
+    }
+
+    private void cover(int header) {
+        right[left[header]] = right[header];
+        left[right[header]] = left[header];
+        for (int i = down[header]; i != header; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                down[up[j]] = down[j];
+                up[down[j]] = up[j];
+                columnSize[column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int header) {
+        for (int i = up[header]; i != header; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                columnSize[column[j]]++;
+                down[up[j]] = j;
+                up[down[j]] = j;
+            }
+        }
+        right[left[header]] = header;
+        left[right[header]] = header;
+    }
+
+    private void writeSolutionToFile(String fileName) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
+            geometry.writeGrid(writer, getSolution());
+        } catch (IOException e) {
+            System.err.println("Error writing solution to file: " + e.getMessage());
+        }
+    }
+
+    private void writeStepsToFile(String fileName) {
+        if (!trace.isEnabled()) return;
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
+            trace.writeTo(writer, size);
+        } catch (IOException e) {
+            System.err.println("Error writing steps to file: " + e.getMessage());
+        }
+    }
+}
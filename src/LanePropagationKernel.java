@@ -0,0 +1,14 @@
+// One propagation sweep over a batch of 9x9 puzzles stored one puzzle per lane: entry
+// [index * lanes + lane] of each array, where index is a cell for open and digit and a
+// unit (rows, columns, boxes) for used. open holds a cell's candidates while it is empty
+// and 0 once filled, digit the bit of its digit once filled, and used the digits placed
+// in each unit. A lane with a nonzero dead entry is skipped.
+interface LanePropagationKernel {
+
+    // Batch widths this kernel handles are multiples of this
+    int laneMultiple();
+
+    // Applies naked singles cell by cell, then hidden singles unit by unit, to every live
+    // lane, and marks lanes that hit a contradiction dead; true if any lane changed
+    boolean sweep(int lanes, int[] open, int[] digit, int[] used, int[] dead);
+}
@@ -0,0 +1,113 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+public class LargeBoardBenchmark {
+
+    private static final long TIME_LIMIT_SECONDS = 30;
+
+    // Share of cells blanked out of the full grid; the rest stay as givens
+    private static final double BLANK_RATIO = 0.5;
+
+    public static void main(String[] args) throws InterruptedException {
+        long seed = args.length > 0 ? Long.parseLong(args[0]) : 42L;
+        Random random = new Random(seed);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            for (int boxSize : new int[]{3, 4, 5}) {
+                SudokuGeometry geometry = SudokuGeometry.of(boxSize, boxSize);
+                int[][] puzzle = generatePuzzle(geometry, random);
+                System.out.println(geometry.size + "x" + geometry.size + " with " + countGivens(puzzle) + " givens:");
+
+                ConstraintProgrammingSudokuSolver constraintSolver = new ConstraintProgrammingSudokuSolver(puzzle);
+                run(executor, "constraint_programming", puzzle, constraintSolver::solveWithBacktracking,
+                        constraintSolver::getSolution, constraintSolver.getMetrics());
+
+                RelationResidualSudokuSolver relationSolver = new RelationResidualSudokuSolver(puzzle);
+                run(executor, "relation_residual", puzzle, relationSolver::solve,
+                        relationSolver::getSolution, relationSolver.getMetrics());
+
+                DancingLinksSudokuSolver dancingLinksSolver = new DancingLinksSudokuSolver(puzzle);
+                run(executor, "dancing_links", puzzle, dancingLinksSolver::solve,
+                        dancingLinksSolver::getSolution, dancingLinksSolver.getMetrics());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Solves on the executor under the time limit and checks the answer against the givens
+    private static void run(ExecutorService executor, String method, int[][] puzzle, Callable<Boolean> solve,
+                            Callable<int[][]> solution, SolverMetrics metrics) throws InterruptedException {
+        Future<Boolean> future = executor.submit(solve);
+        try {
+            boolean solved = future.get(TIME_LIMIT_SECONDS, TimeUnit.SECONDS)
+                    && SudokuBoard.isSolution(puzzle, solution.call());
+            System.out.println("  " + method + ": " + (solved ? "solved" : "FAILED") + " in "
+                    + String.format("%.3f", metrics.getWallNanos() / 1e6) + " ms (" + metrics + ")");
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            System.out.println("  " + method + ": gave up after " + TIME_LIMIT_SECONDS + " s");
+        } catch (Exception e) {
+            System.err.println("  " + method + " failed: " + e);
+        }
+    }
+
+    // A valid full grid from the shifted-pattern construction, scrambled by relabelling
+    // digits and permuting rows within bands and columns within stacks, then blanked
+    static int[][] generatePuzzle(SudokuGeometry geometry, Random random) {
+        int size = geometry.size;
+        int[] digits = shuffled(size, random);
+        int[] rowOrder = bandPermutation(geometry.boxRows, geometry.boxCols, random);
+        int[] colOrder = bandPermutation(geometry.boxCols, geometry.boxRows, random);
+
+        int[][] grid = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                int r = rowOrder[i], c = colOrder[j];
+                int pattern = (geometry.boxCols * (r % geometry.boxRows) + r / geometry.boxRows + c) % size;
+                grid[i][j] = digits[pattern] + 1;
+            }
+        }
+        for (int cell = 0; cell < geometry.cells; cell++) {
+            if (random.nextDouble() < BLANK_RATIO) {
+                grid[cell / size][cell % size] = 0;
+            }
+        }
+        return grid;
+    }
+
+    // Lines grouped in bands of bandWidth; lines move only within their own band
+    private static int[] bandPermutation(int bandWidth, int bands, Random random) {
+        int[] order = new int[bandWidth * bands];
+        for (int band = 0; band < bands; band++) {
+            int[] inside = shuffled(bandWidth, random);
+            for (int k = 0; k < bandWidth; k++) {
+                order[band * bandWidth + k] = band * bandWidth + inside[k];
+            }
+        }
+        return order;
+    }
+
+    private static int[] shuffled(int n, Random random) {
+        int[] values = new int[n];
+        for (int i = 0; i < n; i++) values[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+        return values;
+    }
+
+    private static int countGivens(int[][] puzzle) {
+        int givens = 0;
+        for (int[] row : puzzle) {
+            for (int value : row) {
+                if (value != 0) givens++;
+            }
+        }
+        return givens;
+    }
+}
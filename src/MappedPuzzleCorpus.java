@@ -0,0 +1,161 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+// A 9x9 puzzle corpus parsed straight out of a memory-mapped file, one puzzle per line
+// (81 characters, digits with '0' or '.' for blanks) as BatchSudokuSolver reads them.
+// The file is cut into segments at line boundaries, each mapped on its own since one
+// mapping is limited to 2 GB. A segment knows the number of its first record, so
+// segments can be parsed on separate threads and their solutions written to fixed
+// slots of a MappedSolutionWriter.
+public final class MappedPuzzleCorpus implements Closeable {
+
+    private static final int CELLS = SudokuGeometry.CLASSIC.cells;
+
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+
+    private final FileChannel channel;
+
+    // Byte offset and first record number of each segment, with the file size and
+    // the record total as a final entry
+    private final long[] starts;
+    private final long[] firstRecords;
+
+    public MappedPuzzleCorpus(Path file) throws IOException {
+        this(file, DEFAULT_SEGMENT_BYTES);
+    }
+
+    // Segments are about segmentBytes long, extended or cut back to the end of a line
+    public MappedPuzzleCorpus(Path file, long segmentBytes) throws IOException {
+        if (segmentBytes < CELLS + 2 || segmentBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size out of range: " + segmentBytes);
+        }
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            List<long[]> segments = new ArrayList<>();
+            long start = 0, records = 0;
+            while (start < size) {
+                // Map a window and end the segment after its last newline; a line is
+                // never split between two segments
+                long window = Math.min(segmentBytes, size - start);
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, start, window);
+                int end = (int) window;
+                if (start + window < size) {
+                    while (end > 0 && bytes.get(end - 1) != '\n') end--;
+                    if (end == 0) throw new IOException("Line at byte " + start + " is longer than a segment");
+                }
+                segments.add(new long[]{start, records});
+                records += countRecords(bytes, end);
+                start += end;
+            }
+
+            starts = new long[segments.size() + 1];
+            firstRecords = new long[segments.size() + 1];
+            for (int s = 0; s < segments.size(); s++) {
+                starts[s] = segments.get(s)[0];
+                firstRecords[s] = segments.get(s)[1];
+            }
+            starts[segments.size()] = size;
+            firstRecords[segments.size()] = records;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // Non-empty lines, the same ones Segment.next returns (CRs do not count as content)
+    private static long countRecords(MappedByteBuffer bytes, int limit) {
+        long records = 0;
+        boolean content = false;
+        for (int i = 0; i < limit; i++) {
+            byte b = bytes.get(i);
+            if (b == '\n') {
+                if (content) records++;
+                content = false;
+            } else if (b != '\r') {
+                content = true;
+            }
+        }
+        return content ? records + 1 : records;
+    }
+
+    public int segments() {
+        return starts.length - 1;
+    }
+
+    public long records() {
+        return firstRecords[firstRecords.length - 1];
+    }
+
+    public long firstRecord(int segment) {
+        return firstRecords[segment];
+    }
+
+    // Maps one segment for reading; each thread should take its own
+    public Segment segment(int segment) throws IOException {
+        long start = starts[segment];
+        return new Segment(channel.map(FileChannel.MapMode.READ_ONLY, start, starts[segment + 1] - start),
+                firstRecords[segment]);
+    }
+
+    // The mapped segments stay readable after close until they are garbage collected
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // A cursor over the records of one segment
+    public static final class Segment {
+        private final MappedByteBuffer bytes;
+        private int position;
+        private long nextRecord;
+        private long record = -1;
+        private boolean malformed;
+
+        private Segment(MappedByteBuffer bytes, long firstRecord) {
+            this.bytes = bytes;
+            this.nextRecord = firstRecord;
+        }
+
+        // Parses the next puzzle into board; false once the segment is used up. A line
+        // that is not 81 cells long leaves board cleared and sets malformed()
+        public boolean next(PackedBoard board) {
+            if (board.geometry() != SudokuGeometry.CLASSIC) {
+                throw new IllegalArgumentException("Corpus puzzles are 9x9");
+            }
+            int limit = bytes.limit();
+            int length = 0;
+            while (position < limit) {
+                byte b = bytes.get(position++);
+                if (b == '\r') continue;
+                if (b == '\n') {
+                    if (length > 0) break;
+                    continue;
+                }
+                if (length < CELLS) board.set(length, b >= '1' && b <= '9' ? b - '0' : 0);
+                length++;
+            }
+            if (length == 0) return false;
+
+            record = nextRecord++;
+            malformed = length != CELLS;
+            if (malformed) board.clear();
+            return true;
+        }
+
+        // Number of the record last returned by next, counted from the start of the file
+        public long record() {
+            return record;
+        }
+
+        public boolean malformed() {
+            return malformed;
+        }
+    }
+}
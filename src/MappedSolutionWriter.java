@@ -0,0 +1,72 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Solutions written into a preallocated memory-mapped file, one line of 81 digits per
+// record at byte offset record * RECORD_BYTES. Any thread may write any record without
+// locking or ordering, since writes are absolute puts into disjoint ranges. Every
+// record should be written once; one never written reads back as NUL bytes.
+public final class MappedSolutionWriter implements Closeable {
+
+    private static final int CELLS = SudokuGeometry.CLASSIC.cells;
+
+    public static final int RECORD_BYTES = CELLS + 1;
+
+    // Whole records per mapping, which is limited to 2 GB
+    private static final int RECORDS_PER_REGION = Integer.MAX_VALUE / RECORD_BYTES;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] regions;
+    private final long records;
+
+    // Creates or truncates file and sizes it for exactly records lines
+    public MappedSolutionWriter(Path file, long records) throws IOException {
+        this.records = records;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            regions = new MappedByteBuffer[(int) ((records + RECORDS_PER_REGION - 1) / RECORDS_PER_REGION)];
+            for (int r = 0; r < regions.length; r++) {
+                long first = (long) r * RECORDS_PER_REGION;
+                long count = Math.min(RECORDS_PER_REGION, records - first);
+                // Mapping past the end grows the file to its final size
+                regions[r] = channel.map(FileChannel.MapMode.READ_WRITE, first * RECORD_BYTES, count * RECORD_BYTES);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long records() {
+        return records;
+    }
+
+    // Writes the flat row-major solution of record, or a line of zeros if it is null
+    public void write(long record, int[] solution) {
+        if (record < 0 || record >= records) {
+            throw new IndexOutOfBoundsException("Record " + record + " of " + records);
+        }
+        MappedByteBuffer region = regions[(int) (record / RECORDS_PER_REGION)];
+        int offset = (int) (record % RECORDS_PER_REGION) * RECORD_BYTES;
+        for (int cell = 0; cell < CELLS; cell++) {
+            region.put(offset + cell, (byte) ('0' + (solution == null ? 0 : solution[cell])));
+        }
+        region.put(offset + CELLS, (byte) '\n');
+    }
+
+    // Flushes every region to the file; call once all writers are done
+    @Override
+    public void close() throws IOException {
+        try {
+            for (MappedByteBuffer region : regions) {
+                region.force();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
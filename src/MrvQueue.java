@@ -0,0 +1,122 @@
+import java.util.Arrays;
+
+// Unfilled cells bucketed by how many candidates they have left, so the cell with the
+// minimum remaining values comes out without scanning the board. Each bucket is an intrusive doubly
+// linked list and a bitset marks the non-empty ones. Narrowing a cell is O(1); filling or
+// unfilling one is O(peers) for the unfilled-peer counts (degrees) that break ties.
+// Ties are only looked at in the lowest bucket when asked, which measured cheaper than
+// keeping buckets keyed by degree as well: that re-files every peer on each placement.
+public final class MrvQueue {
+
+    private static final int NONE = -1;
+
+    private final SudokuGeometry geometry;
+
+    private final int[] head;
+    private final long[] occupied;
+
+    // Per cell: its bucket (NONE while filled), list links, candidate count and
+    // unfilled peers; degree is kept up to date for filled cells too
+    private final int[] key;
+    private final int[] next;
+    private final int[] prev;
+    private final int[] remaining;
+    private final int[] degree;
+
+    public MrvQueue(SudokuGeometry geometry) {
+        this.geometry = geometry;
+        int keys = geometry.size + 1;
+        head = new int[keys];
+        occupied = new long[(keys + 63) >>> 6];
+        key = new int[geometry.cells];
+        next = new int[geometry.cells];
+        prev = new int[geometry.cells];
+        remaining = new int[geometry.cells];
+        degree = new int[geometry.cells];
+    }
+
+    // Queues every empty cell of board with its candidates from masks
+    public void build(SudokuBoard board, long[] masks) {
+        int size = geometry.size;
+        Arrays.fill(head, NONE);
+        Arrays.fill(occupied, 0);
+        for (int cell = 0; cell < geometry.cells; cell++) {
+            int unfilled = 0;
+            for (int peer : geometry.peers(cell)) {
+                if (board.isEmpty(peer / size, peer % size)) unfilled++;
+            }
+            degree[cell] = unfilled;
+            key[cell] = NONE;
+            if (board.isEmpty(cell / size, cell % size)) {
+                remaining[cell] = Long.bitCount(masks[cell]);
+                link(cell);
+            }
+        }
+    }
+
+    // The empty cell with the fewest candidates, most unfilled peers breaking ties,
+    // or -1 once every cell is filled
+    public int best() {
+        for (int word = 0; word < occupied.length; word++) {
+            if (occupied[word] != 0) {
+                int k = (word << 6) + Long.numberOfTrailingZeros(occupied[word]);
+                int best = head[k];
+                if (k <= 1) return best; // a dead or forced cell needs no tie-break
+                for (int cell = next[best]; cell != NONE; cell = next[cell]) {
+                    if (degree[cell] > degree[best]) best = cell;
+                }
+                return best;
+            }
+        }
+        return NONE;
+    }
+
+    // Call after cell was filled
+    public void fill(int cell) {
+        unlink(cell);
+        key[cell] = NONE;
+        for (int peer : geometry.peers(cell)) {
+            degree[peer]--;
+        }
+    }
+
+    // Call after cell was emptied again, with the candidates it has now
+    public void unfill(int cell, long mask) {
+        for (int peer : geometry.peers(cell)) {
+            degree[peer]++;
+        }
+        remaining[cell] = Long.bitCount(mask);
+        link(cell);
+    }
+
+    // Call after an empty cell's candidates changed; ignored for filled cells
+    public void update(int cell, long mask) {
+        if (key[cell] == NONE) return;
+        int count = Long.bitCount(mask);
+        if (count == remaining[cell]) return;
+        remaining[cell] = count;
+        unlink(cell);
+        link(cell);
+    }
+
+    private void link(int cell) {
+        int k = remaining[cell];
+        key[cell] = k;
+        prev[cell] = NONE;
+        next[cell] = head[k];
+        if (head[k] != NONE) prev[head[k]] = cell;
+        head[k] = cell;
+        occupied[k >>> 6] |= 1L << k;
+    }
+
+    private void unlink(int cell) {
+        int k = key[cell];
+        if (prev[cell] != NONE) {
+            next[prev[cell]] = next[cell];
+        } else {
+            head[k] = next[cell];
+            if (head[k] == NONE) occupied[k >>> 6] &= ~(1L << k);
+        }
+        if (next[cell] != NONE) prev[next[cell]] = prev[cell];
+    }
+}
@@ -0,0 +1,147 @@
+import java.util.Arrays;
+
+// Solves 9x9 puzzles LANES at a time. Their candidate masks sit side by side, one puzzle
+// per lane, so a LanePropagationKernel can sweep naked and hidden singles over a cell of
+// every puzzle at once, until a sweep changes nothing. Singles alone settle most puzzles;
+// the rest go on to a reused ConstraintProgrammingSudokuSolver from the propagated grid.
+// VectorPropagationKernel (vector/, needs --add-modules jdk.incubator.vector) is used
+// when it can be loaded, ScalarPropagationKernel otherwise.
+public class MultiPuzzleSolver {
+
+    public static final int LANES = 64;
+
+    private static final SudokuGeometry GEOMETRY = SudokuGeometry.CLASSIC;
+    private static final int SIZE = GEOMETRY.size;
+    private static final int CELLS = GEOMETRY.cells;
+
+    private final LanePropagationKernel kernel;
+
+    // Lane layout, see LanePropagationKernel
+    private final int[] open = new int[CELLS * LANES];
+    private final int[] digit = new int[CELLS * LANES];
+    private final int[] used = new int[GEOMETRY.units * LANES];
+    private final int[] dead = new int[LANES];
+
+    private final PackedBoard board = new PackedBoard(GEOMETRY);
+    private final ConstraintProgrammingSudokuSolver fallback = new ConstraintProgrammingSudokuSolver(board);
+
+    // Puzzles settled by the kernel and ones that needed the search
+    private long propagated;
+    private long searched;
+
+    public MultiPuzzleSolver() {
+        this(defaultKernel());
+    }
+
+    MultiPuzzleSolver(LanePropagationKernel kernel) {
+        if (LANES % kernel.laneMultiple() != 0) {
+            throw new IllegalArgumentException(kernel.getClass().getSimpleName() + " needs lanes in multiples of "
+                    + kernel.laneMultiple());
+        }
+        this.kernel = kernel;
+    }
+
+    // The vector kernel if it is on the classpath and the incubator module is enabled. It is
+    // looked up next to this class, which the benchmark build compiles into a package.
+    static LanePropagationKernel defaultKernel() {
+        String pkg = MultiPuzzleSolver.class.getPackageName();
+        String name = pkg.isEmpty() ? "VectorPropagationKernel" : pkg + ".VectorPropagationKernel";
+        try {
+            return (LanePropagationKernel) Class.forName(name).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return new ScalarPropagationKernel();
+        }
+    }
+
+    public String getKernel() {
+        return kernel.getClass().getSimpleName();
+    }
+
+    public long getPropagated() {
+        return propagated;
+    }
+
+    public long getSearched() {
+        return searched;
+    }
+
+    // Solves count puzzles stored back to back in givens, one byte per cell with 0 for
+    // blanks (as in BatchSudokuSolver's chunks), into solutions at the same offsets; an
+    // unsolvable puzzle is left as zeros. Returns how many were solved.
+    public int solve(byte[] givens, int count, byte[] solutions) {
+        int solved = 0;
+        for (int first = 0; first < count; first += LANES) {
+            int lanes = Math.min(LANES, count - first);
+            load(givens, first, lanes);
+            while (kernel.sweep(LANES, open, digit, used, dead)) {
+                // until no lane changes
+            }
+            for (int lane = 0; lane < lanes; lane++) {
+                int offset = (first + lane) * CELLS;
+                if (store(lane, solutions, offset)) {
+                    solved++;
+                } else {
+                    Arrays.fill(solutions, offset, offset + CELLS, (byte) 0);
+                }
+            }
+        }
+        return solved;
+    }
+
+    // Loads lanes puzzles from first on and marks the remaining lanes dead
+    private void load(byte[] givens, int first, int lanes) {
+        Arrays.fill(used, 0);
+        for (int lane = 0; lane < LANES; lane++) {
+            dead[lane] = lane < lanes ? 0 : 1;
+        }
+        int all = (int) GEOMETRY.allDigits;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int row = cell / SIZE * LANES, col = (SIZE + cell % SIZE) * LANES;
+            int box = (2 * SIZE + GEOMETRY.boxOf(cell)) * LANES;
+            for (int lane = 0; lane < LANES; lane++) {
+                int num = lane < lanes ? givens[(first + lane) * CELLS + cell] : 0;
+                int at = cell * LANES + lane;
+                if (num == 0) {
+                    open[at] = lane < lanes ? all : 0;
+                    digit[at] = 0;
+                    continue;
+                }
+                int bit = 1 << (num - 1);
+                if ((bit & (used[row + lane] | used[col + lane] | used[box + lane])) != 0) dead[lane] = 1;
+                open[at] = 0;
+                digit[at] = bit;
+                used[row + lane] |= bit;
+                used[col + lane] |= bit;
+                used[box + lane] |= bit;
+            }
+        }
+    }
+
+    // Writes lane's solution at offset, searching from its propagated grid if singles did
+    // not fill it; false if it has none
+    private boolean store(int lane, byte[] solutions, int offset) {
+        if (dead[lane] != 0) return false;
+        boolean complete = true;
+        for (int cell = 0; cell < CELLS; cell++) {
+            int bit = digit[cell * LANES + lane];
+            board.set(cell, bit == 0 ? 0 : Integer.numberOfTrailingZeros(bit) + 1);
+            complete &= bit != 0;
+        }
+        if (complete) {
+            propagated++;
+            for (int cell = 0; cell < CELLS; cell++) {
+                solutions[offset + cell] = (byte) board.get(cell);
+            }
+            return true;
+        }
+
+        searched++;
+        fallback.reset(board);
+        SolveResult result = fallback.trySolve();
+        if (!result.isSolved()) return false;
+        for (int cell = 0; cell < CELLS; cell++) {
+            solutions[offset + cell] = (byte) result.get(cell / SIZE, cell % SIZE);
+        }
+        return true;
+    }
+}
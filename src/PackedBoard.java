@@ -0,0 +1,72 @@
+import java.util.Arrays;
+
+// A puzzle as one flat byte per cell, row-major with 0 for blanks: 81 bytes for 9x9
+// instead of ten int arrays. One instance is meant to be refilled with reset for every
+// puzzle of a batch, and the solvers read their givens straight out of it.
+public final class PackedBoard {
+
+    private final SudokuGeometry geometry;
+    private final byte[] cells;
+
+    public PackedBoard(SudokuGeometry geometry) {
+        this.geometry = geometry;
+        cells = new byte[geometry.cells];
+    }
+
+    public PackedBoard(int[][] grid) {
+        this(SudokuGeometry.of(grid));
+        reset(grid);
+    }
+
+    public SudokuGeometry geometry() {
+        return geometry;
+    }
+
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    public void set(int cell, int num) {
+        cells[cell] = (byte) num;
+    }
+
+    public void clear() {
+        Arrays.fill(cells, (byte) 0);
+    }
+
+    // Copies geometry.cells digits starting at offset, e.g. one puzzle of a batch buffer
+    public void reset(byte[] source, int offset) {
+        System.arraycopy(source, offset, cells, 0, cells.length);
+    }
+
+    public void reset(PackedBoard other) {
+        if (other.geometry != geometry) {
+            throw new IllegalArgumentException("Board is " + geometry.size + "x" + geometry.size + ", not " + other.geometry.size);
+        }
+        System.arraycopy(other.cells, 0, cells, 0, cells.length);
+    }
+
+    public void reset(int[][] grid) {
+        int size = geometry.size;
+        for (int cell = 0; cell < cells.length; cell++) {
+            cells[cell] = (byte) grid[cell / size][cell % size];
+        }
+    }
+
+    // One line of text, digits with '0' or '.' for blanks (9x9 and smaller only)
+    public void reset(CharSequence line) {
+        for (int cell = 0; cell < cells.length; cell++) {
+            char c = line.charAt(cell);
+            cells[cell] = c >= '1' && c <= '9' ? (byte) (c - '0') : 0;
+        }
+    }
+
+    public int[][] toGrid() {
+        int size = geometry.size;
+        int[][] grid = new int[size][size];
+        for (int cell = 0; cell < cells.length; cell++) {
+            grid[cell / size][cell % size] = cells[cell];
+        }
+        return grid;
+    }
+}
@@ -0,0 +1,88 @@
+// A cheap pre-solve description of a puzzle for SolverRouter: how many clues it has, how
+// they are spread over the rows, columns and boxes, and how much the constraint propagator
+// settles on its own before any search. Extraction is one propagation pass.
+public final class PuzzleFeatures {
+
+    // Number of distinct values bucket() returns
+    public static final int BUCKETS = 2 + 4 * 3 * 2;
+
+    public final int size;
+    public final int clues;
+
+    // Clues in the sparsest and the densest unit
+    public final int minUnitClues;
+    public final int maxUnitClues;
+
+    // True if propagation proves the puzzle has no solution
+    public final boolean contradiction;
+
+    // Cells propagation leaves for search, their mean candidate count, and how many of
+    // them are down to two candidates
+    public final int openCells;
+    public final double meanCandidates;
+    public final int bivalueCells;
+
+    private PuzzleFeatures(SudokuBoard board) {
+        SudokuGeometry geometry = board.geometry();
+        size = geometry.size;
+
+        int clues = 0, minUnit = size, maxUnit = 0;
+        for (int unit = 0; unit < geometry.units; unit++) {
+            int filled = 0;
+            for (int cell : geometry.unit(unit)) {
+                if (!board.isEmpty(cell / size, cell % size)) filled++;
+            }
+            if (unit < size) clues += filled; // the rows cover every cell once
+            minUnit = Math.min(minUnit, filled);
+            maxUnit = Math.max(maxUnit, filled);
+        }
+        this.clues = clues;
+        minUnitClues = minUnit;
+        maxUnitClues = maxUnit;
+
+        ConstraintPropagator propagator = new ConstraintPropagator(board);
+        contradiction = !propagator.propagate();
+        int open = 0, bivalue = 0;
+        long candidates = 0;
+        for (int cell = 0; cell < geometry.cells && !contradiction; cell++) {
+            if (board.isEmpty(cell / size, cell % size)) {
+                int count = Long.bitCount(propagator.candidates(cell));
+                open++;
+                candidates += count;
+                if (count == 2) bivalue++;
+            }
+        }
+        openCells = open;
+        meanCandidates = open == 0 ? 0 : (double) candidates / open;
+        bivalueCells = bivalue;
+    }
+
+    public static PuzzleFeatures of(int[][] puzzle) {
+        return new PuzzleFeatures(new SudokuBoard(puzzle));
+    }
+
+    public static PuzzleFeatures of(PackedBoard puzzle) {
+        return new PuzzleFeatures(new SudokuBoard(puzzle));
+    }
+
+    // The coarse class the router keeps statistics for: 0 for a contradiction, 1 when
+    // propagation solves the puzzle, otherwise the share of cells left open (quarters),
+    // the mean candidates per open cell relative to size, and whether the clues are
+    // lopsided (some unit has at most a third as many as the densest)
+    public int bucket() {
+        if (contradiction) return 0;
+        if (openCells == 0) return 1;
+        int open = Math.min(3, openCells * 4 / (size * size));
+        double ratio = meanCandidates / size;
+        int spread = ratio < 0.3 ? 0 : ratio < 0.45 ? 1 : 2;
+        int lopsided = 3 * minUnitClues <= maxUnitClues ? 1 : 0;
+        return 2 + (open * 3 + spread) * 2 + lopsided;
+    }
+
+    @Override
+    public String toString() {
+        return "features[clues=" + clues + ", unitClues=" + minUnitClues + ".." + maxUnitClues
+                + ", open=" + openCells + ", meanCandidates=" + String.format("%.2f", meanCandidates)
+                + ", bivalue=" + bivalueCells + (contradiction ? ", contradiction" : "") + ", bucket=" + bucket() + "]";
+    }
+}
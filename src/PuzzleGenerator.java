@@ -0,0 +1,213 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+// Generates puzzles with exactly one solution. A random full grid comes from filling the
+// independent diagonal boxes with shuffled digits and completing them with dancing links;
+// clues are then taken out in random order, each removal kept only if the solution stays
+// unique (a constraint-programming count up to 2) and the puzzle stays within the
+// requested difficulty. Each thread has its own solvers and random stream split from
+// the seed, so a seed and thread count replay the same puzzles.
+public class PuzzleGenerator {
+
+    // How hard a puzzle is to prove unique: the search nodes of the constraint-programming
+    // count, where 1 means propagation alone settles it
+    public enum Difficulty {
+        ANY(1, Long.MAX_VALUE),
+        EASY(1, 1),
+        MEDIUM(2, 5),
+        HARD(6, Long.MAX_VALUE);
+
+        final long minNodes;
+        final long maxNodes;
+
+        Difficulty(long minNodes, long maxNodes) {
+            this.minNodes = minNodes;
+            this.maxNodes = maxNodes;
+        }
+    }
+
+    private final SudokuGeometry geometry;
+    private final int threads;
+    private int targetClues;
+    private Difficulty difficulty = Difficulty.ANY;
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder clues = new LongAdder();
+
+    public PuzzleGenerator(SudokuGeometry geometry, int threads) {
+        this.geometry = geometry;
+        this.threads = threads;
+    }
+
+    // Clues to stop at; 0 (the default) removes clues until none can go. A grid that
+    // cannot get down to the target is thrown away, so targets near the minimum (17 for
+    // 9x9) take many attempts per puzzle.
+    public void setTargetClues(int targetClues) {
+        this.targetClues = targetClues;
+    }
+
+    public void setDifficulty(Difficulty difficulty) {
+        this.difficulty = difficulty;
+    }
+
+    // Full grids tried, including the ones thrown away for missing the targets
+    public long getAttempts() {
+        return attempts.sum();
+    }
+
+    // Clues over all puzzles returned
+    public long getClues() {
+        return clues.sum();
+    }
+
+    // Generates count puzzles split evenly over the threads; the list is in thread order
+    public List<PackedBoard> generate(int count, long seed) throws InterruptedException {
+        SplittableRandom random = new SplittableRandom(seed);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<List<PackedBoard>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int share = count / threads + (t < count % threads ? 1 : 0);
+                Worker worker = new Worker(random.split());
+                futures.add(pool.submit(() -> worker.generate(share)));
+            }
+            List<PackedBoard> puzzles = new ArrayList<>(count);
+            for (Future<List<PackedBoard>> future : futures) {
+                try {
+                    puzzles.addAll(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Generator worker failed", e.getCause());
+                }
+            }
+            return puzzles;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // One thread's generator: its random stream, boards and solvers are reused for every puzzle
+    private final class Worker {
+        private final SplittableRandom random;
+        private final PackedBoard puzzle = new PackedBoard(geometry);
+        private final DancingLinksSudokuSolver filler = new DancingLinksSudokuSolver(puzzle);
+        private final ConstraintProgrammingSudokuSolver counter = new ConstraintProgrammingSudokuSolver(puzzle);
+        private final int[] order = new int[geometry.cells];
+
+        Worker(SplittableRandom random) {
+            this.random = random;
+            for (int cell = 0; cell < order.length; cell++) order[cell] = cell;
+        }
+
+        List<PackedBoard> generate(int count) {
+            List<PackedBoard> puzzles = new ArrayList<>(count);
+            while (puzzles.size() < count) {
+                if (Thread.currentThread().isInterrupted()) break;
+                attempts.increment();
+                int given = next();
+                if (given < 0) continue;
+                PackedBoard copy = new PackedBoard(geometry);
+                copy.reset(puzzle);
+                puzzles.add(copy);
+                clues.add(given);
+            }
+            return puzzles;
+        }
+
+        // Leaves a unique puzzle in puzzle and returns its clues, or -1 if this grid missed
+        // the clue or difficulty target
+        private int next() {
+            fillGrid();
+            shuffle(order);
+            int given = geometry.cells;
+            long nodes = 1;
+            for (int cell : order) {
+                if (given <= targetClues) break;
+                int num = puzzle.get(cell);
+                puzzle.set(cell, 0);
+                long rated = uniqueNodes();
+                if (rated < 0 || rated > difficulty.maxNodes) {
+                    puzzle.set(cell, num);
+                } else {
+                    given--;
+                    nodes = rated;
+                }
+            }
+            if (targetClues > 0 && given > targetClues) return -1;
+            return nodes < difficulty.minNodes ? -1 : given;
+        }
+
+        // A random solved grid in puzzle. Boxes on the diagonal share no row or column,
+        // so any digit order in each is consistent and the rest always completes.
+        private void fillGrid() {
+            puzzle.clear();
+            int[] digits = new int[geometry.size];
+            for (int d = 0; d < digits.length; d++) digits[d] = d + 1;
+            int size = geometry.size;
+            for (int box = 0; box < Math.min(geometry.boxRows, geometry.boxCols); box++) {
+                shuffle(digits);
+                for (int k = 0; k < size; k++) {
+                    int row = box * geometry.boxRows + k / geometry.boxCols;
+                    int col = box * geometry.boxCols + k % geometry.boxCols;
+                    puzzle.set(row * size + col, digits[k]);
+                }
+            }
+            filler.reset(puzzle);
+            int[] grid = filler.findSolution();
+            for (int cell = 0; cell < grid.length; cell++) puzzle.set(cell, grid[cell]);
+        }
+
+        // Search nodes to prove puzzle has one solution, or -1 if it has more
+        private long uniqueNodes() {
+            counter.reset(puzzle);
+            long before = counter.getMetrics().nodesVisited;
+            if (counter.countSolutions(2) != 1) return -1;
+            return counter.getMetrics().nodesVisited - before;
+        }
+
+        private void shuffle(int[] values) {
+            for (int i = values.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = values[i];
+                values[i] = values[j];
+                values[j] = tmp;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java PuzzleGenerator <count> [threads] [target clues, 0 = minimal]"
+                    + " [ANY|EASY|MEDIUM|HARD] [seed] [puzzles.txt]");
+            return;
+        }
+        int count = Integer.parseInt(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        PuzzleGenerator generator = new PuzzleGenerator(SudokuGeometry.CLASSIC, threads);
+        if (args.length > 2) generator.setTargetClues(Integer.parseInt(args[2]));
+        if (args.length > 3) generator.setDifficulty(Difficulty.valueOf(args[3].toUpperCase()));
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : new SplittableRandom().nextLong();
+
+        long start = System.nanoTime();
+        List<PackedBoard> puzzles = generator.generate(count, seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println("Generated " + puzzles.size() + " puzzles in " + String.format("%.3f", seconds) + " s ("
+                + String.format("%.0f", puzzles.size() / seconds) + " puzzles/sec, " + threads + " threads, seed "
+                + seed + ")");
+        System.out.println(String.format("%.1f", (double) generator.getClues() / puzzles.size()) + " clues on average, "
+                + generator.getAttempts() + " grids tried");
+
+        // Same line format BatchSudokuSolver reads
+        if (args.length > 5) {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(args[5]))) {
+                for (PackedBoard puzzle : puzzles) {
+                    for (int cell = 0; cell < SudokuGeometry.CLASSIC.cells; cell++) {
+                        writer.write('0' + puzzle.get(cell));
+                    }
+                    writer.newLine();
+                }
+            }
+        }
+    }
+}
@@ -1,176 +1,378 @@
 import java.io.*;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
 
-public class RelationResidualSudokuSolver {
+public class RelationResidualSudokuSolver implements SudokuSolver {
 
-    private static final int SIZE = 9;
-    private int[][] board;
-    private Map<String, Set<Integer>> residuals;
+    // Fork/join mode forks one subtask per candidate on this many levels below the root
+    private static final int SPLIT_DEPTH = 3;
+
+    private final int size;
+    private final int cells;
+
+    private SudokuBoard board;
+    private SudokuGeometry geometry;
+
+    // Candidate bitmask per cell: bit (n - 1) is set while n is still possible
+    private long[] residuals;
+
+    // Undo log of removed candidates, packed as (cell << 8) | digit
+    private int[] trail;
+    private int trailSize;
+
+    // Empty cells ordered by residual count, then most empty peers
+    private MrvQueue queue;
+
+    // The puzzle as loaded, which is what a checkpoint records
+    private final PackedBoard givens;
+
+    // Explicit search stack, one level per branching cell: the cell, the digit placed
+    // there (0 while none), the residuals not tried yet and the trail size before the
+    // placement. A search stopped by its budget or an interrupt keeps its levels (paused)
+    // and the next solve resumes it; saveCheckpoint writes them to a file.
+    private final int[] levelCell;
+    private final int[] levelDigit;
+    private final long[] levelUntried;
+    private final int[] levelMark;
+    private int levels;
+    private boolean paused;
+    private final SolverMetrics metrics = new SolverMetrics();
+    private TraceSink trace = NoOpTraceSink.INSTANCE;
+    private SearchBudget budget = SearchBudget.UNLIMITED;
+    private SearchBudget.Tracker tracker = SearchBudget.UNLIMITED.start(0);
+    private SolveStatus status = SolveStatus.NOT_STARTED;
+
+    // Set for subtasks of the fork/join search: once a sibling publishes a solution here,
+    // the search unwinds
+    private AtomicReference<int[][]> found;
 
     public RelationResidualSudokuSolver(int[][] input) {
-        board = new int[SIZE][SIZE];
-        residuals = new HashMap<>();
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
-                board[i][j] = input[i][j];
-            }
-        }
+        this(new PackedBoard(input));
+    }
+
+    public RelationResidualSudokuSolver(PackedBoard input) {
+        board = new SudokuBoard(input);
+        geometry = board.geometry();
+        size = geometry.size;
+        cells = geometry.cells;
+        residuals = new long[cells];
+        trail = new int[cells * geometry.peers(0).length];
+        givens = new PackedBoard(geometry);
+        givens.reset(input);
+        levelCell = new int[cells];
+        levelDigit = new int[cells];
+        levelUntried = new long[cells];
+        levelMark = new int[cells];
+        initializeResiduals();
+    }
+
+    // Loads another puzzle of the same size into the existing board, residuals and trail;
+    // metrics keep accumulating
+    public void reset(PackedBoard input) {
+        board.reset(input);
+        givens.reset(input);
+        Arrays.fill(residuals, 0);
+        trailSize = 0;
+        levels = 0;
+        paused = false;
         initializeResiduals();
     }
 
     private void initializeResiduals() {
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                if (board[row][col] == 0) {
-                    Set<Integer> candidates = getCandidates(row, col);
-                    residuals.put(row + "," + col, candidates);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (board.isEmpty(row, col)) {
+                    residuals[row * size + col] = board.candidates(row, col);
                 }
             }
         }
+        if (queue == null) queue = new MrvQueue(geometry);
+        queue.build(board, residuals);
     }
 
     public boolean solve() {
-        List<String> steps = new ArrayList<>();
-        if (residualSolve(steps)) {
+        if (trySolve().isSolved()) {
             writeSolutionToFile("E:\\group soduku\\untitled\\src\\relation_residual_solution.txt");
-            writeStepsToFile(steps, "E:\\group soduku\\untitled\\src\\relation_residual_steps.txt");
+            writeStepsToFile("E:\\group soduku\\untitled\\src\\relation_residual_steps.txt");
             return true;
         } else {
             return false;
         }
     }
 
-    private boolean residualSolve(List<String> steps) {
-        String nextCell = getCellWithFewestCandidates();
-        if (nextCell == null) return true; // no empty cell left
+    @Override
+    public String name() {
+        return "relation_residual";
+    }
+
+    @Override
+    public SolveResult trySolve() {
+        SolverMetrics before = metrics.copy();
+        tracker = budget.start(metrics.nodesVisited);
+        metrics.start();
+        boolean solved = search(); // resumes a paused search
+        if (solved) levels = 0; // the solution stays on the board
+        metrics.stop();
+        status = tracker.status(solved);
+        return new SolveResult(name(), status, solved ? board.toGrid() : null, before, metrics);
+    }
+
+    // Splits the top levels of the search tree across a fork/join pool. Each subtask
+    // rebuilds its residuals from a copy of the grid (the compact state), and the first
+    // solution found stops all the others. Any paused or finished search is dropped first,
+    // so the split starts from the givens and the winner goes onto a clean trail. Like
+    // trySolve, it writes no files.
+    public SolveResult solveParallel(int threads) {
+        reset(givens);
+        SolverMetrics before = metrics.copy();
+        AtomicReference<int[][]> result = new AtomicReference<>();
+        tracker = budget.start(metrics.nodesVisited);
+        // Every subtask forks the shared tracker, so the node limit covers the whole search
+        SearchTask root = new SearchTask(board.toGrid(), 0, result, tracker.shared());
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        metrics.start();
+        try {
+            pool.invoke(root);
+        } finally {
+            pool.shutdownNow();
+            metrics.add(root.metrics);
+            metrics.stop();
+        }
+
+        int[][] solution = result.get();
+        status = solution == null && root.exceeded ? SolveStatus.BUDGET_EXCEEDED : tracker.status(solution != null);
+        if (solution == null) return new SolveResult(name(), status, null, before, metrics);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (board.isEmpty(i, j)) updateResiduals(i, j, solution[i][j]);
+            }
+        }
+        return new SolveResult(name(), status, board.toGrid(), before, metrics);
+    }
+
+    // One subtree of the fork/join search; its metrics and budget overrun include those
+    // of its children
+    private static final class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
 
-        String[] parts = nextCell.split(",");
-        int row = Integer.parseInt(parts[0]);
-        int col = Integer.parseInt(parts[1]);
-        Set<Integer> candidates = new HashSet<>(residuals.get(nextCell));
+        private final int[][] grid;
+        private final int depth;
+        private final AtomicReference<int[][]> found;
+        private final SearchBudget.Tracker budget;
+        private final SolverMetrics metrics = new SolverMetrics();
+        private boolean exceeded;
 
-        for (int num : candidates) {
-            if (isValid(row, col, num)) {
-                board[row][col] = num;
-                steps.add("Step: (" + row + "," + col + ") = " + num + " (Placed)");
+        SearchTask(int[][] grid, int depth, AtomicReference<int[][]> found, SearchBudget.Tracker budget) {
+            this.grid = grid;
+            this.depth = depth;
+            this.found = found;
+            this.budget = budget;
+        }
 
-                // Backup current residuals
-                Map<String, Set<Integer>> backup = cloneResiduals();
-                updateResiduals(row, col, num);
+        @Override
+        protected void compute() {
+            if (found.get() != null) return;
+            // Subtasks still queued when the shared budget runs out stop before their first node
+            SearchBudget.Tracker tracker = budget.fork(0);
+            if (tracker.exceeded(0)) {
+                exceeded = true;
+                return;
+            }
+            RelationResidualSudokuSolver solver = new RelationResidualSudokuSolver(grid);
+            solver.found = found;
+            solver.tracker = tracker;
 
-                if (residualSolve(steps)) {
-                    return true;
+            // Only this task's own work is timed, on whichever worker runs it
+            solver.metrics.start();
+            List<SearchTask> children = new ArrayList<>();
+            int cell = solver.getCellWithFewestCandidates();
+            if (cell >= 0 && depth < SPLIT_DEPTH) {
+                // The split node counts against the budget too; nothing is forked once it is spent
+                solver.metrics.nodesVisited++;
+                long candidates = solver.tracker.exceeded(solver.metrics.nodesVisited) ? 0 : solver.residuals[cell];
+                while (candidates != 0) {
+                    long bit = candidates & -candidates;
+                    candidates ^= bit;
+                    int[][] child = solver.board.toGrid();
+                    child[cell / solver.size][cell % solver.size] = Long.numberOfTrailingZeros(bit) + 1;
+                    children.add(new SearchTask(child, depth + 1, found, budget));
                 }
+            } else if (solver.search()) {
+                found.compareAndSet(null, solver.board.toGrid());
+            }
+            solver.metrics.stop();
+            metrics.add(solver.metrics);
+            exceeded = solver.tracker.isExceeded();
 
-                board[row][col] = 0;
-                steps.add("Step: (" + row + "," + col + ") = " + num + " (Backtracked)");
-                residuals = backup;
+            invokeAll(children);
+            for (SearchTask child : children) {
+                metrics.add(child.metrics);
+                exceeded |= child.exceeded;
             }
         }
-        return false;
     }
 
-    private String getCellWithFewestCandidates() {
-        String minKey = null;
-        int minSize = Integer.MAX_VALUE;
-        for (Map.Entry<String, Set<Integer>> entry : residuals.entrySet()) {
-            int size = entry.getValue().size();
-            if (size < minSize && board[Integer.parseInt(entry.getKey().split(",")[0])][Integer.parseInt(entry.getKey().split(",")[1])] == 0) {
-                minSize = size;
-                minKey = entry.getKey();
-            }
-        }
-        return minKey;
+    // Where placements and backtracks are recorded; nothing is kept by default
+    public void setTraceSink(TraceSink trace) {
+        this.trace = trace;
     }
 
-    private Map<String, Set<Integer>> cloneResiduals() {
-        Map<String, Set<Integer>> copy = new HashMap<>();
-        for (Map.Entry<String, Set<Integer>> entry : residuals.entrySet()) {
-            copy.put(entry.getKey(), new HashSet<>(entry.getValue()));
-        }
-        return copy;
+    // Node and wall-clock limits for each solve; unlimited by default. In fork/join mode
+    // both cover the whole search, across all subtasks.
+    @Override
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
     }
 
-    private Set<Integer> getCandidates(int row, int col) {
-        Set<Integer> candidates = new HashSet<>();
-        for (int i = 1; i <= 9; i++) candidates.add(i);
+    // How the last solve ended, e.g. BUDGET_EXCEEDED with partial counts in getMetrics
+    public SolveStatus getStatus() {
+        return status;
+    }
 
-        for (int i = 0; i < SIZE; i++) {
-            candidates.remove(board[row][i]);
-            candidates.remove(board[i][col]);
-        }
-        int startRow = row - row % 3, startCol = col - col % 3;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                candidates.remove(board[startRow + i][startCol + j]);
+    public SolverMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int[][] getSolution() {
+        return board.toGrid();
+    }
+
+    // Depth-first search on the level stack, entering one node per pass. Returns true
+    // with a solution on the board; false once the tree is exhausted, or when stopped,
+    // which leaves the search paused at this node
+    private boolean search() {
+        while (true) {
+            // Cooperative cancellation, e.g. when another solver won the race or a sibling
+            // subtask found the solution
+            if (Thread.currentThread().isInterrupted() || (found != null && found.get() != null)
+                    || tracker.exceeded(metrics.nodesVisited)) {
+                paused = true;
+                return false;
+            }
+            metrics.nodesVisited++;
+
+            int nextCell = getCellWithFewestCandidates();
+            if (nextCell < 0) { // no empty cell left
+                paused = false;
+                return true;
+            }
+            levelCell[levels] = nextCell;
+            levelDigit[levels] = 0;
+            levelUntried[levels] = residuals[nextCell];
+            levels++;
+            if (!advance()) {
+                paused = false;
+                return false;
             }
         }
-        return candidates;
     }
 
-    private void updateResiduals(int row, int col, int value) {
-        board[row][col] = value;
-        residuals.remove(row + "," + col);
-        for (int i = 0; i < SIZE; i++) {
-            removeCandidate(row, i, value);
-            removeCandidate(i, col, value);
-        }
-        int startRow = row - row % 3, startCol = col - col % 3;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                removeCandidate(startRow + i, startCol + j, value);
+    // Moves to the next branch: takes back the deepest level's digit and places its next
+    // residual, dropping levels that have none left. False once the root is used up.
+    private boolean advance() {
+        while (levels > 0) {
+            int level = levels - 1;
+            int row = levelCell[level] / size, col = levelCell[level] % size;
+            if (levelDigit[level] != 0) {
+                undoResiduals(row, col, levelMark[level]);
+                metrics.backtracks++;
+                trace.record(levelCell[level], levelDigit[level], TraceSink.BACKTRACKED);
+                levelDigit[level] = 0;
+            }
+            while (levelUntried[level] != 0) {
+                long bit = levelUntried[level] & -levelUntried[level];
+                levelUntried[level] ^= bit;
+                int num = Long.numberOfTrailingZeros(bit) + 1;
+                if (board.isValid(row, col, num)) {
+                    metrics.placements++;
+                    trace.record(levelCell[level], num, TraceSink.PLACED);
+
+                    // Remember where the trail stood so the placement can be undone
+                    levelMark[level] = trailSize;
+                    updateResiduals(row, col, num);
+                    levelDigit[level] = num;
+                    return true;
+                }
             }
+            levels--;
         }
+        return false;
     }
 
-    private void removeCandidate(int row, int col, int value) {
-        String key = row + "," + col;
-        if (residuals.containsKey(key)) {
-            residuals.get(key).remove(value);
-        }
+    // Writes the paused search to file: the givens and the branch cursors of every open level
+    public void saveCheckpoint(Path file) throws IOException {
+        if (!paused) throw new IllegalStateException("No paused search to checkpoint");
+        new SearchCheckpoint(name(), givens, false, 0, Arrays.copyOf(levelCell, levels),
+                Arrays.copyOf(levelDigit, levels), Arrays.copyOf(levelUntried, levels)).write(file);
     }
 
-    private boolean isValid(int row, int col, int num) {
-        for (int i = 0; i < SIZE; i++) {
-            if (board[row][i] == num || board[i][col] == num) {
-                return false;
+    // A solver paused where saveCheckpoint left off, rebuilt from the givens by replaying
+    // each level's digit; continue it with trySolve. Metrics start from zero.
+    public static RelationResidualSudokuSolver resumeFrom(Path file) throws IOException {
+        SearchCheckpoint checkpoint = SearchCheckpoint.read(file, "relation_residual");
+        RelationResidualSudokuSolver solver = new RelationResidualSudokuSolver(checkpoint.givens);
+        for (int level = 0; level < checkpoint.levels(); level++) {
+            int cell = checkpoint.cells[level], num = checkpoint.digits[level];
+            int row = cell / solver.size, col = cell % solver.size;
+            if (!solver.board.isEmpty(row, col) || !solver.board.isValid(row, col, num)) {
+                throw new IOException("Checkpoint does not replay at level " + level);
             }
+            solver.levelCell[level] = cell;
+            solver.levelDigit[level] = num;
+            solver.levelUntried[level] = checkpoint.untried[level];
+            solver.levelMark[level] = solver.trailSize;
+            solver.updateResiduals(row, col, num);
         }
-        int startRow = row - row % 3, startCol = col - col % 3;
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (board[i + startRow][j + startCol] == num) {
-                    return false;
-                }
+        solver.levels = checkpoint.levels();
+        solver.paused = true;
+        return solver;
+    }
+
+    // MRV: the empty cell with the fewest candidates, most empty peers breaking ties,
+    // or -1 when the board is full
+    int getCellWithFewestCandidates() {
+        return queue.best();
+    }
+
+    void updateResiduals(int row, int col, int value) {
+        long bit = 1L << (value - 1);
+        board.place(row, col, value);
+        queue.fill(row * size + col);
+        for (int peer : geometry.peers(row * size + col)) {
+            if ((residuals[peer] & bit) != 0) {
+                residuals[peer] &= ~bit;
+                queue.update(peer, residuals[peer]);
+                trail[trailSize++] = (peer << 8) | value;
             }
         }
-        return true;
+    }
+
+    void undoResiduals(int row, int col, int mark) {
+        while (trailSize > mark) {
+            int entry = trail[--trailSize];
+            int peer = entry >>> 8;
+            residuals[peer] |= 1L << ((entry & 0xFF) - 1);
+            queue.update(peer, residuals[peer]);
+        }
+        board.unplace(row, col);
+        queue.unfill(row * size + col, residuals[row * size + col]);
     }
 
     private void writeSolutionToFile(String fileName) {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
-            for (int i = 0; i < SIZE; i++) {
-                for (int j = 0; j < SIZE; j++) {
-                    writer.write(board[i][j] + " ");
-                    if (j == 2 || j == 5) writer.write("| ");
-                }
-                writer.newLine();
-                if (i == 2 || i == 5) {
-                    writer.write("------+-------+------");
-                    writer.newLine();
-                }
-            }
+            board.geometry().writeGrid(writer, board.toGrid());
         } catch (IOException e) {
             System.err.println("Error writing solution to file: " + e.getMessage());
         }
     }
 
-    private void writeStepsToFile(List<String> steps, String fileName) {
+    private void writeStepsToFile(String fileName) {
+        if (!trace.isEnabled()) return;
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
-            for (String step : steps) {
-                writer.write(step);
-                writer.newLine();
-            }
+            trace.writeTo(writer, size);
         } catch (IOException e) {
             System.err.println("Error writing steps to file: " + e.getMessage());
         }
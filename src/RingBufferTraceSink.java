@@ -0,0 +1,44 @@
+import java.io.IOException;
+import java.io.Writer;
+
+public class RingBufferTraceSink implements TraceSink {
+
+    // Keeps only the most recent events, packed, so memory stays fixed on long solves;
+    // the capacity is rounded up to a power of two
+    private final int[] buffer;
+    private final int mask;
+    private long recorded;
+
+    public RingBufferTraceSink(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        buffer = new int[size];
+        mask = size - 1;
+    }
+
+    @Override
+    public void record(int cell, int value, int event) {
+        buffer[(int) (recorded++ & mask)] = TraceSink.pack(cell, value, event);
+    }
+
+    // Events seen in total, including those already overwritten
+    public long getRecorded() {
+        return recorded;
+    }
+
+    public int size() {
+        return (int) Math.min(recorded, buffer.length);
+    }
+
+    // The i-th oldest retained event, in packed form
+    public int get(int i) {
+        return buffer[(int) ((recorded - size() + i) & mask)];
+    }
+
+    @Override
+    public void writeTo(Writer writer, int boardSize) throws IOException {
+        for (int i = 0; i < size(); i++) {
+            writer.write(TraceSink.format(get(i), boardSize));
+            writer.write(System.lineSeparator());
+        }
+    }
+}
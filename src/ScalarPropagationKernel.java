@@ -0,0 +1,83 @@
+// The plain-Java sweep, one lane at a time, used wherever the Vector API is unavailable.
+// Candidate masks may still hold digits placed elsewhere in the same sweep; they are
+// supersets of the true candidates, so every single found is still forced.
+final class ScalarPropagationKernel implements LanePropagationKernel {
+
+    private static final SudokuGeometry GEOMETRY = SudokuGeometry.CLASSIC;
+    private static final int SIZE = GEOMETRY.size;
+    private static final int ALL = (int) GEOMETRY.allDigits;
+
+    @Override
+    public int laneMultiple() {
+        return 1;
+    }
+
+    @Override
+    public boolean sweep(int lanes, int[] open, int[] digit, int[] used, int[] dead) {
+        boolean changed = false;
+
+        // Naked singles: remove the digits of the cell's units; one left is placed
+        for (int cell = 0; cell < GEOMETRY.cells; cell++) {
+            int at = cell * lanes;
+            int row = cell / SIZE * lanes, col = (SIZE + cell % SIZE) * lanes;
+            int box = (2 * SIZE + GEOMETRY.boxOf(cell)) * lanes;
+            for (int lane = 0; lane < lanes; lane++) {
+                int mask = open[at + lane];
+                if (mask == 0 || dead[lane] != 0) continue;
+                int left = mask & ~(used[row + lane] | used[col + lane] | used[box + lane]);
+                if (left == 0) {
+                    dead[lane] = 1;
+                } else if ((left & (left - 1)) == 0) {
+                    open[at + lane] = 0;
+                    digit[at + lane] = left;
+                    used[row + lane] |= left;
+                    used[col + lane] |= left;
+                    used[box + lane] |= left;
+                    changed = true;
+                } else if (left != mask) {
+                    open[at + lane] = left;
+                    changed = true;
+                }
+            }
+        }
+
+        // Hidden singles: a digit that only one open cell of a unit can take
+        for (int unit = 0; unit < GEOMETRY.units; unit++) {
+            int[] cells = GEOMETRY.unit(unit);
+            for (int lane = 0; lane < lanes; lane++) {
+                if (dead[lane] != 0) continue;
+                int once = 0, twice = 0;
+                for (int cell : cells) {
+                    int mask = open[cell * lanes + lane];
+                    twice |= once & mask;
+                    once |= mask;
+                }
+                int placed = used[unit * lanes + lane];
+                if ((once | placed) != ALL) {
+                    dead[lane] = 1; // some digit has nowhere to go
+                    continue;
+                }
+                int hidden = once & ~twice & ~placed;
+                for (int cell = 0; hidden != 0 && cell < SIZE; cell++) {
+                    int at = cells[cell] * lanes + lane;
+                    int bit = open[at] & hidden;
+                    if (bit == 0) continue;
+                    int row = cells[cell] / SIZE * lanes + lane, col = (SIZE + cells[cell] % SIZE) * lanes + lane;
+                    int box = (2 * SIZE + GEOMETRY.boxOf(cells[cell])) * lanes + lane;
+                    if ((bit & (bit - 1)) != 0 || (bit & (used[row] | used[col] | used[box])) != 0) {
+                        dead[lane] = 1; // the only home of two digits, or of one it cannot take
+                        break;
+                    }
+                    open[at] = 0;
+                    digit[at] = bit;
+                    used[row] |= bit;
+                    used[col] |= bit;
+                    used[box] |= bit;
+                    hidden &= ~bit;
+                    changed = true;
+                }
+            }
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,124 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Limits on one solve: search nodes (annealing steps for the stochastic solver) and wall
+// time. The node count is checked at every node; the clock only every CLOCK_INTERVAL
+// nodes, so the deadline can overrun by that much work.
+public final class SearchBudget {
+
+    public static final SearchBudget UNLIMITED = new SearchBudget(Long.MAX_VALUE, Long.MAX_VALUE);
+
+    // A power of two, so the check is a mask
+    private static final long CLOCK_INTERVAL = 1024;
+
+    private final long maxNodes;
+    private final long maxNanos;
+
+    public SearchBudget(long maxNodes, long maxNanos) {
+        if (maxNodes <= 0 || maxNanos <= 0) {
+            throw new IllegalArgumentException("Budget must be positive: " + maxNodes + " nodes, " + maxNanos + " ns");
+        }
+        this.maxNodes = maxNodes;
+        this.maxNanos = maxNanos;
+    }
+
+    public static SearchBudget ofNodes(long maxNodes) {
+        return new SearchBudget(maxNodes, Long.MAX_VALUE);
+    }
+
+    public static SearchBudget ofTime(long duration, TimeUnit unit) {
+        return new SearchBudget(Long.MAX_VALUE, unit.toNanos(duration));
+    }
+
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    // Starts metering a solve now; nodes is the solver's count so far, since its
+    // metrics accumulate over solves
+    Tracker start(long nodes) {
+        return new Tracker(this, nodes, System.nanoTime());
+    }
+
+    // One solve's consumption of the budget. Trackers are confined to a thread; parallel
+    // searches fork one per subtask, which shares the deadline. A fork counts its own nodes,
+    // unless it comes from a shared() tracker, whose forks all draw on one node count.
+    static final class Tracker {
+        private final SearchBudget budget;
+        private final long nodeLimit;
+        private final long startNanos;
+        private boolean exceeded;
+
+        // Nodes of all forks of a shared tracker, null otherwise; counted is how much of
+        // this fork's own running count has been added to it
+        private final AtomicLong sharedNodes;
+        private long counted;
+
+        private Tracker(SearchBudget budget, long nodes, long startNanos) {
+            this.budget = budget;
+            this.nodeLimit = nodes > Long.MAX_VALUE - budget.maxNodes ? Long.MAX_VALUE : nodes + budget.maxNodes;
+            this.startNanos = startNanos;
+            this.sharedNodes = null;
+        }
+
+        private Tracker(SearchBudget budget, long startNanos, AtomicLong sharedNodes, long nodes) {
+            this.budget = budget;
+            this.nodeLimit = budget.maxNodes;
+            this.startNanos = startNanos;
+            this.sharedNodes = sharedNodes;
+            this.counted = nodes;
+        }
+
+        // A fork starting at the given running node count
+        Tracker fork(long nodes) {
+            if (sharedNodes != null) return new Tracker(budget, startNanos, sharedNodes, nodes);
+            return new Tracker(budget, nodes, startNanos);
+        }
+
+        // A tracker with this one's deadline whose forks share a single node count, so the
+        // node limit covers a whole parallel search as it does a single-threaded one
+        Tracker shared() {
+            return new Tracker(budget, startNanos, new AtomicLong(), 0);
+        }
+
+        // Called once per node with the running node count; true from the first node
+        // over budget on
+        boolean exceeded(long nodes) {
+            if (!exceeded && (overNodes(nodes)
+                    || (nodes & (CLOCK_INTERVAL - 1)) == 0 && System.nanoTime() - startNanos >= budget.maxNanos)) {
+                exceeded = true;
+            }
+            return exceeded;
+        }
+
+        private boolean overNodes(long nodes) {
+            if (sharedNodes == null) return nodes >= nodeLimit;
+            long total = sharedNodes.addAndGet(nodes - counted);
+            counted = nodes;
+            return total >= nodeLimit;
+        }
+
+        boolean isExceeded() {
+            return exceeded;
+        }
+
+        // Outcome of a search for one solution
+        SolveStatus status(boolean solved) {
+            if (solved) return SolveStatus.SOLVED;
+            if (exceeded) return SolveStatus.BUDGET_EXCEEDED;
+            if (Thread.currentThread().isInterrupted()) return SolveStatus.CANCELLED;
+            return SolveStatus.UNSOLVABLE;
+        }
+
+        // Outcome of a count, which is only complete if the search was not cut short
+        SolveStatus countStatus(long solutions) {
+            if (exceeded) return SolveStatus.BUDGET_EXCEEDED;
+            if (Thread.currentThread().isInterrupted()) return SolveStatus.CANCELLED;
+            return solutions > 0 ? SolveStatus.SOLVED : SolveStatus.UNSOLVABLE;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+// The compact state of a paused depth-first search: the givens, the mode, and for each
+// open level the branching cell, the digit placed there and the candidates not tried yet.
+// Everything else (candidate masks, undo trail) is rebuilt by replaying the placed digits
+// on the givens, so a checkpoint is a few bytes per level.
+final class SearchCheckpoint {
+
+    private static final int MAGIC = 0x53444B43; // "SDKC"
+    private static final int VERSION = 1;
+
+    final String solver;
+    final PackedBoard givens;
+    final boolean counting;
+    final long solutionCount;
+    final int[] cells;
+    final int[] digits;
+    final long[] untried;
+
+    SearchCheckpoint(String solver, PackedBoard givens, boolean counting, long solutionCount,
+                     int[] cells, int[] digits, long[] untried) {
+        this.solver = solver;
+        this.givens = givens;
+        this.counting = counting;
+        this.solutionCount = solutionCount;
+        this.cells = cells;
+        this.digits = digits;
+        this.untried = untried;
+    }
+
+    int levels() {
+        return cells.length;
+    }
+
+    // Written to a temporary file and moved into place, so a crash mid-write leaves the
+    // previous checkpoint intact
+    void write(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        SudokuGeometry geometry = givens.geometry();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(solver);
+            out.writeByte(geometry.boxRows);
+            out.writeByte(geometry.boxCols);
+            for (int cell = 0; cell < geometry.cells; cell++) {
+                out.writeByte(givens.get(cell));
+            }
+            out.writeBoolean(counting);
+            out.writeLong(solutionCount);
+            out.writeInt(cells.length);
+            for (int level = 0; level < cells.length; level++) {
+                out.writeInt(cells[level]);
+                out.writeByte(digits[level]);
+                out.writeLong(untried[level]);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Reads a checkpoint written by the named solver; the digits are range-checked here,
+    // whether they fit the givens is left to the replay
+    static SearchCheckpoint read(Path file, String solver) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) throw new IOException(file + " is not a search checkpoint");
+            int version = in.readInt();
+            if (version != VERSION) throw new IOException("Unsupported checkpoint version " + version);
+            String writer = in.readUTF();
+            if (!writer.equals(solver)) {
+                throw new IOException("Checkpoint was written by " + writer + ", not " + solver);
+            }
+
+            SudokuGeometry geometry;
+            try {
+                geometry = SudokuGeometry.of(in.readUnsignedByte(), in.readUnsignedByte());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt checkpoint: " + e.getMessage());
+            }
+            PackedBoard givens = new PackedBoard(geometry);
+            for (int cell = 0; cell < geometry.cells; cell++) {
+                int num = in.readUnsignedByte();
+                if (num > geometry.size) throw new IOException("Corrupt checkpoint: given " + num);
+                givens.set(cell, num);
+            }
+            boolean counting = in.readBoolean();
+            long solutionCount = in.readLong();
+
+            int levels = in.readInt();
+            if (levels < 0 || levels > geometry.cells) throw new IOException("Corrupt checkpoint: " + levels + " levels");
+            int[] cells = new int[levels];
+            int[] digits = new int[levels];
+            long[] untried = new long[levels];
+            for (int level = 0; level < levels; level++) {
+                cells[level] = in.readInt();
+                digits[level] = in.readUnsignedByte();
+                untried[level] = in.readLong();
+                if (cells[level] < 0 || cells[level] >= geometry.cells || digits[level] < 1 || digits[level] > geometry.size) {
+                    throw new IOException("Corrupt checkpoint at level " + level);
+                }
+            }
+            return new SearchCheckpoint(solver, givens, counting, solutionCount, cells, digits, untried);
+        }
+    }
+}
@@ -0,0 +1,457 @@
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SolutionCache {
+
+    private static final int SIZE = 9;
+    private static final int CELLS = 81;
+
+    // Name on the results of cache hits, and the counters they report: none
+    private static final String NAME = "solution_cache";
+    private static final SolverMetrics NO_WORK = new SolverMetrics();
+
+    // How a digit with no label yet compares while ordering a row: above every label
+    private static final int NEW = SIZE + 1;
+
+    // Lock stripes; each is its own access-ordered LRU holding capacity / SEGMENTS entries
+    private static final int SEGMENTS = 16;
+
+    // Ties kept while building the canonical form. Nearly empty grids tie on millions of
+    // orientations; past this the form is no longer guaranteed minimal, which only costs
+    // cache hits, never correctness, since every kept orientation is a real symmetry
+    private static final int MAX_TIES = 4096;
+
+    // Orders of up to three items (the rows or columns of one band or stack), by size
+    private static final int[][][] INDEX_PERMUTATIONS = {
+            {{}},
+            {{0}},
+            {{0, 1}, {1, 0}},
+            {{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}}
+    };
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public SolutionCache(int capacity) {
+        if (capacity < SEGMENTS) throw new IllegalArgumentException("Capacity must be at least " + SEGMENTS);
+        for (int s = 0; s < SEGMENTS; s++) {
+            segments[s] = new Segment(capacity / SEGMENTS);
+        }
+    }
+
+    // The cached solution if an equivalent puzzle was solved before, otherwise solves it
+    // with dancing links and caches the answer; null if the puzzle has no solution or
+    // none was found within the budget. Only 9x9 puzzles are cached, other sizes go
+    // straight to the solver
+    public int[][] solve(int[][] puzzle) {
+        return solve(puzzle, SearchBudget.UNLIMITED).getSolution();
+    }
+
+    // As solve(puzzle), with the budget on a miss's search. A hit comes back SOLVED with
+    // zero counters; a miss carries the solver's own result, e.g. BUDGET_EXCEEDED, and
+    // only a solution found is cached
+    public SolveResult solve(int[][] puzzle, SearchBudget budget) {
+        if (puzzle.length != SIZE) {
+            misses.increment();
+            return solveDirect(puzzle, budget);
+        }
+        Canonical canonical = new Canonical(puzzle);
+        long[] packed = segment(canonical.key).get(canonical.key);
+        if (packed != null) {
+            hits.increment();
+            return new SolveResult(NAME, SolveStatus.SOLVED, canonical.fromCanonical(packed), NO_WORK, NO_WORK);
+        }
+        misses.increment();
+        SolveResult result = solveDirect(puzzle, budget);
+        if (result.isSolved()) {
+            segment(canonical.key).put(canonical.key, canonical.toCanonical(result.getSolution()));
+        }
+        return result;
+    }
+
+    private static SolveResult solveDirect(int[][] puzzle, SearchBudget budget) {
+        DancingLinksSudokuSolver solver = new DancingLinksSudokuSolver(puzzle);
+        solver.setBudget(budget);
+        return solver.trySolve();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) size += segment.size();
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + getHits() + ", misses=" + getMisses() + ", evictions=" + getEvictions() + ", size=" + size();
+    }
+
+    private Segment segment(Key key) {
+        return segments[(key.hashCode() >>> 16 ^ key.hashCode()) & (SEGMENTS - 1)];
+    }
+
+    private final class Segment {
+        private final LinkedHashMap<Key, long[]> entries;
+
+        Segment(int capacity) {
+            entries = new LinkedHashMap<>(capacity * 4 / 3 + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, long[]> eldest) {
+                    if (size() <= capacity) return false;
+                    evictions.increment();
+                    return true;
+                }
+            };
+        }
+
+        synchronized long[] get(Key key) {
+            return entries.get(key);
+        }
+
+        synchronized void put(Key key, long[] packed) {
+            entries.put(key, packed);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    // A canonical grid packed as 81 nibbles
+    private static final class Key {
+        private final long[] nibbles;
+        private final int hash;
+
+        Key(long[] nibbles) {
+            this.nibbles = nibbles;
+            this.hash = Arrays.hashCode(nibbles);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(nibbles, ((Key) other).nibbles);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // The puzzle's canonical form under Sudoku symmetries (transposition, band and stack
+    // permutations, row and column permutations inside them, digit relabelling), and the
+    // transformation that maps the caller's grid onto it
+    private static final class Canonical {
+        private final Key key;
+        private final boolean transposed;
+        private final int[] rowOrder;
+        private final int[] columnOrder;
+        private final int[] label = new int[SIZE + 1];
+        private final int[] digit = new int[SIZE + 1];
+
+        // Smallest relabelled row at the current depth, and scratch for the row under test
+        private final int[] best = new int[SIZE];
+        private final int[] scratchRow = new int[SIZE];
+        private final int[] scratchColumns = new int[SIZE];
+        private final int[] scratchStarts = new int[SIZE];
+
+        Canonical(int[][] puzzle) {
+            // Grow the lexicographically smallest relabelled grid one row at a time, keeping
+            // every orientation that ties for the smallest prefix
+            List<Orientation> ties = new ArrayList<>();
+            boolean first = true;
+            for (int t = 0; t < 2; t++) {
+                Orientation start = new Orientation(t == 0 ? puzzle : transpose(puzzle), t == 1);
+                for (int row = 0; row < SIZE; row++) {
+                    if (offer(start, row, ties, first)) first = false;
+                }
+            }
+
+            // Two lists swapped level by level, so neither regrows once warmed up
+            List<Orientation> current = new ArrayList<>();
+            for (int k = 1; k < SIZE; k++) {
+                List<Orientation> swap = current;
+                current = ties;
+                ties = swap;
+                ties.clear();
+                first = true;
+                for (Orientation orientation : current) {
+                    int bandStart = orientation.row / 3 * 3;
+                    boolean bandDone = k % 3 == 0;
+                    for (int row = 0; row < SIZE; row++) {
+                        if (orientation.uses(row)) continue;
+                        if (bandDone ? orientation.bandUsed(row / 3) : row / 3 * 3 != bandStart) continue;
+                        if (offer(orientation, row, ties, first)) first = false;
+                    }
+                }
+            }
+
+            Orientation winner = ties.get(0);
+            transposed = winner.transposed;
+            rowOrder = winner.rows();
+            columnOrder = winner.columns;
+            System.arraycopy(winner.label, 0, label, 0, SIZE + 1);
+
+            // Digits absent from the puzzle take the remaining labels in digit order
+            int next = winner.nextLabel;
+            for (int d = 1; d <= SIZE; d++) {
+                if (label[d] == 0) label[d] = next++;
+                digit[label[d]] = d;
+            }
+            int[] cells = new int[CELLS];
+            for (int i = 0; i < SIZE; i++) {
+                for (int j = 0; j < SIZE; j++) {
+                    int value = at(puzzle, i, j);
+                    cells[i * SIZE + j] = value == 0 ? 0 : label[value];
+                }
+            }
+            key = new Key(pack(cells));
+        }
+
+        // Extends orientation with row as its next row, ordering the columns of each block
+        // and the stacks of each stack block to make the relabelled row as small as possible.
+        // Digits not labelled yet compare as NEW, above every label: within a row they are
+        // distinct and get the next labels left to right. Keeps the extension if its row is
+        // no larger than the best seen at this depth, and returns whether it was kept
+        private boolean offer(Orientation orientation, int row, List<Orientation> ties, boolean reset) {
+            int[] cols = scratchColumns, syms = scratchRow, starts = scratchStarts;
+            int[] source = orientation.grid[row];
+            for (int p = 0; p < SIZE; p++) {
+                int value = source[orientation.columns[p]];
+                cols[p] = orientation.columns[p];
+                syms[p] = value == 0 ? 0 : orientation.label[value] != 0 ? orientation.label[value] : NEW;
+                starts[p] = orientation.columnStarts >>> p & 1;
+            }
+
+            // Columns within a block, by symbol
+            for (int p = 1; p < SIZE; p++) {
+                for (int q = p; q > 0 && starts[q] == 0 && syms[q] < syms[q - 1]; q--) {
+                    swap(cols, q, q - 1);
+                    swap(syms, q, q - 1);
+                }
+            }
+            // Stacks within a stack block, by their three symbols
+            for (int s = 1; s < 3; s++) {
+                for (int t = s; t > 0 && (orientation.stackStarts >>> t & 1) == 0 && compareSlots(syms, t, t - 1) < 0; t--) {
+                    for (int k = 0; k < 3; k++) {
+                        swap(cols, t * 3 + k, t * 3 - 3 + k);
+                        swap(syms, t * 3 + k, t * 3 - 3 + k);
+                        swap(starts, t * 3 + k, t * 3 - 3 + k);
+                    }
+                }
+            }
+
+            int compare = reset ? -1 : Arrays.compare(syms, best);
+            if (compare > 0) return false;
+            if (compare < 0) {
+                ties.clear();
+                System.arraycopy(syms, 0, best, 0, SIZE);
+            } else if (ties.size() >= MAX_TIES) {
+                return false;
+            }
+
+            // Refine the blocks: a new block wherever the symbol changes, and every NEW
+            // column or stack on its own, since its order now decides the labels
+            int columnStarts = 0;
+            List<int[]> groups = new ArrayList<>();
+            for (int p = 0; p < SIZE; p++) {
+                if (p % 3 == 0 || starts[p] != 0 || syms[p] != syms[p - 1] || syms[p] == NEW) {
+                    columnStarts |= 1 << p;
+                }
+                // The run of NEW columns at the end of a block can be ordered any way
+                if (syms[p] == NEW && (p % 3 == 0 || starts[p] != 0 || syms[p - 1] != NEW)) {
+                    int end = p + 1;
+                    while (end % 3 != 0 && starts[end] == 0) end++;
+                    if (end - p > 1) groups.add(new int[]{p, end - p, 1});
+                }
+            }
+            int stackStarts = 1;
+            for (int s = 1; s < 3; s++) {
+                boolean tied = (orientation.stackStarts >>> s & 1) == 0 && compareSlots(syms, s, s - 1) == 0;
+                if (!tied || hasNew(syms, s)) stackStarts |= 1 << s;
+            }
+            for (int s = 0; s < 3; s++) {
+                // A run of tied stacks holding NEW digits can be ordered any way
+                if (!hasNew(syms, s) || (s > 0 && (orientation.stackStarts >>> s & 1) == 0
+                        && compareSlots(syms, s, s - 1) == 0)) continue;
+                int end = s + 1;
+                while (end < 3 && (orientation.stackStarts >>> end & 1) == 0 && compareSlots(syms, end, s) == 0) end++;
+                if (end - s > 1) groups.add(new int[]{s * 3, end - s, 3});
+            }
+
+            List<int[]> arrangements = new ArrayList<>();
+            arrangements.add(cols.clone());
+            for (int[] group : groups) {
+                int at = group[0], length = group[1], width = group[2];
+                List<int[]> expanded = new ArrayList<>();
+                for (int[] arrangement : arrangements) {
+                    for (int[] order : INDEX_PERMUTATIONS[length]) {
+                        int[] permuted = arrangement.clone();
+                        for (int k = 0; k < length; k++) {
+                            System.arraycopy(arrangement, at + order[k] * width, permuted, at + k * width, width);
+                        }
+                        expanded.add(permuted);
+                    }
+                }
+                arrangements = expanded;
+            }
+
+            for (int[] arrangement : arrangements) {
+                if (ties.size() >= MAX_TIES) break;
+                int[] label = orientation.label;
+                int next = orientation.nextLabel;
+                for (int p = 0; p < SIZE; p++) {
+                    int value = source[arrangement[p]];
+                    if (value != 0 && label[value] == 0) {
+                        // Rows that hand out no new labels share their parent's
+                        if (label == orientation.label) label = label.clone();
+                        label[value] = next++;
+                    }
+                }
+                ties.add(new Orientation(orientation, row, arrangement, columnStarts, stackStarts, label, next));
+            }
+            return true;
+        }
+
+        private int at(int[][] puzzle, int i, int j) {
+            int r = rowOrder[i], c = columnOrder[j];
+            return transposed ? puzzle[c][r] : puzzle[r][c];
+        }
+
+        long[] toCanonical(int[][] solution) {
+            int[] cells = new int[CELLS];
+            for (int i = 0; i < SIZE; i++) {
+                for (int j = 0; j < SIZE; j++) {
+                    cells[i * SIZE + j] = label[at(solution, i, j)];
+                }
+            }
+            return pack(cells);
+        }
+
+        int[][] fromCanonical(long[] packed) {
+            int[][] solution = new int[SIZE][SIZE];
+            for (int i = 0; i < SIZE; i++) {
+                for (int j = 0; j < SIZE; j++) {
+                    int cell = i * SIZE + j;
+                    int value = digit[(int) (packed[cell >>> 4] >>> ((cell & 15) << 2)) & 0xF];
+                    int r = rowOrder[i], c = columnOrder[j];
+                    if (transposed) solution[c][r] = value;
+                    else solution[r][c] = value;
+                }
+            }
+            return solution;
+        }
+    }
+
+    // A partial orientation: which source rows fill the first depth rows (a chain back to
+    // the first row), the digit labels handed out so far, and the column order. Columns
+    // nothing has told apart yet form blocks (bits of columnStarts mark where one starts),
+    // and so do stacks (stackStarts); order inside a block is still free
+    private static final class Orientation {
+        private final int[][] grid;
+        private final boolean transposed;
+        private final int[] columns;
+        private final int columnStarts;
+        private final int stackStarts;
+        private final Orientation parent;
+        private final int row;
+        private final int usedRows;
+        private final int depth;
+        private final int[] label;
+        private final int nextLabel;
+
+        Orientation(int[][] grid, boolean transposed) {
+            this.grid = grid;
+            this.transposed = transposed;
+            this.columns = new int[]{0, 1, 2, 3, 4, 5, 6, 7, 8};
+            this.columnStarts = 1 | 1 << 3 | 1 << 6;
+            this.stackStarts = 1;
+            this.parent = null;
+            this.row = -1;
+            this.usedRows = 0;
+            this.depth = 0;
+            this.label = new int[SIZE + 1];
+            this.nextLabel = 1;
+        }
+
+        Orientation(Orientation parent, int row, int[] columns, int columnStarts, int stackStarts,
+                    int[] label, int nextLabel) {
+            this.grid = parent.grid;
+            this.transposed = parent.transposed;
+            this.columns = columns;
+            this.columnStarts = columnStarts;
+            this.stackStarts = stackStarts;
+            this.parent = parent;
+            this.row = row;
+            this.usedRows = parent.usedRows | 1 << row;
+            this.depth = parent.depth + 1;
+            this.label = label;
+            this.nextLabel = nextLabel;
+        }
+
+        boolean uses(int row) {
+            return (usedRows & 1 << row) != 0;
+        }
+
+        boolean bandUsed(int band) {
+            return (usedRows >>> band * 3 & 7) != 0;
+        }
+
+        int[] rows() {
+            int[] rows = new int[SIZE];
+            for (Orientation o = this; o.parent != null; o = o.parent) {
+                rows[o.depth - 1] = o.row;
+            }
+            return rows;
+        }
+    }
+
+    private static int compareSlots(int[] syms, int a, int b) {
+        for (int k = 0; k < 3; k++) {
+            if (syms[a * 3 + k] != syms[b * 3 + k]) return syms[a * 3 + k] < syms[b * 3 + k] ? -1 : 1;
+        }
+        return 0;
+    }
+
+    private static boolean hasNew(int[] syms, int slot) {
+        return syms[slot * 3] == NEW || syms[slot * 3 + 1] == NEW || syms[slot * 3 + 2] == NEW;
+    }
+
+    private static void swap(int[] values, int a, int b) {
+        int tmp = values[a];
+        values[a] = values[b];
+        values[b] = tmp;
+    }
+
+    private static long[] pack(int[] cells) {
+        long[] packed = new long[(CELLS + 15) / 16];
+        for (int cell = 0; cell < CELLS; cell++) {
+            packed[cell >>> 4] |= (long) cells[cell] << ((cell & 15) << 2);
+        }
+        return packed;
+    }
+
+    private static int[][] transpose(int[][] grid) {
+        int[][] transposed = new int[SIZE][SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            for (int j = 0; j < SIZE; j++) {
+                transposed[j][i] = grid[i][j];
+            }
+        }
+        return transposed;
+    }
+}
@@ -0,0 +1,84 @@
+// The outcome of one trySolve: immutable, with only that solve's share of the solver's
+// accumulated metrics
+public final class SolveResult {
+
+    private final String solver;
+    private final SolveStatus status;
+    private final int[][] solution;
+    private final long placements;
+    private final long backtracks;
+    private final long propagations;
+    private final long nodesVisited;
+    private final long elapsedNanos;
+    private final long cpuNanos;
+
+    // solution must be a fresh grid the solver no longer touches, or null unless solved
+    SolveResult(String solver, SolveStatus status, int[][] solution, SolverMetrics before, SolverMetrics after) {
+        this.solver = solver;
+        this.status = status;
+        this.solution = solution;
+        placements = after.placements - before.placements;
+        backtracks = after.backtracks - before.backtracks;
+        propagations = after.propagations - before.propagations;
+        nodesVisited = after.nodesVisited - before.nodesVisited;
+        elapsedNanos = after.getWallNanos() - before.getWallNanos();
+        cpuNanos = after.getCpuNanos() - before.getCpuNanos();
+    }
+
+    public String getSolver() {
+        return solver;
+    }
+
+    public SolveStatus getStatus() {
+        return status;
+    }
+
+    public boolean isSolved() {
+        return status == SolveStatus.SOLVED;
+    }
+
+    // A copy of the solved grid, or null if the solve did not succeed
+    public int[][] getSolution() {
+        if (solution == null) return null;
+        int[][] grid = new int[solution.length][];
+        for (int i = 0; i < solution.length; i++) {
+            grid[i] = solution[i].clone();
+        }
+        return grid;
+    }
+
+    public int get(int row, int col) {
+        return solution == null ? 0 : solution[row][col];
+    }
+
+    public long getPlacements() {
+        return placements;
+    }
+
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    public long getPropagations() {
+        return propagations;
+    }
+
+    public long getNodesVisited() {
+        return nodesVisited;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    @Override
+    public String toString() {
+        return solver + ": " + status + " (placements=" + placements + ", backtracks=" + backtracks
+                + ", propagations=" + propagations + ", nodes=" + nodesVisited + ", wall=" + elapsedNanos / 1000
+                + "us, cpu=" + cpuNanos / 1000 + "us)";
+    }
+}
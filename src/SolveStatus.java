@@ -0,0 +1,11 @@
+// How the last solve of a solver ended
+public enum SolveStatus {
+    NOT_STARTED,
+    SOLVED,
+    // The search space was exhausted or propagation hit a contradiction: no solution exists
+    UNSOLVABLE,
+    // The node or time budget ran out first; the metrics cover the work done up to then
+    BUDGET_EXCEEDED,
+    // Interrupted, e.g. because another solver of a portfolio won
+    CANCELLED
+}
@@ -0,0 +1,84 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+public class SolverMetrics {
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    // Plain counters bumped directly by the solvers' search loops
+    long placements;
+    long backtracks;
+    long propagations;
+    long nodesVisited;
+
+    private long wallNanos;
+    private long cpuNanos;
+    private long wallStart;
+    private long cpuStart;
+
+    public void start() {
+        wallStart = System.nanoTime();
+        cpuStart = currentThreadCpuTime();
+    }
+
+    public void stop() {
+        wallNanos += System.nanoTime() - wallStart;
+        cpuNanos += currentThreadCpuTime() - cpuStart;
+    }
+
+    // Folds in the counters of work done elsewhere, e.g. the winning parallel chain
+    public void add(SolverMetrics other) {
+        placements += other.placements;
+        backtracks += other.backtracks;
+        propagations += other.propagations;
+        nodesVisited += other.nodesVisited;
+        cpuNanos += other.cpuNanos;
+    }
+
+    // The counters and times as they stand, e.g. to tell one solve's share later
+    SolverMetrics copy() {
+        SolverMetrics copy = new SolverMetrics();
+        copy.add(this);
+        copy.wallNanos = wallNanos;
+        return copy;
+    }
+
+    private static long currentThreadCpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0L;
+    }
+
+    public long getPlacements() {
+        return placements;
+    }
+
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    public long getPropagations() {
+        return propagations;
+    }
+
+    public long getNodesVisited() {
+        return nodesVisited;
+    }
+
+    public long getWallNanos() {
+        return wallNanos;
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos;
+    }
+
+    // What the old step files counted: one line per placement or backtrack
+    public long getSteps() {
+        return placements + backtracks;
+    }
+
+    @Override
+    public String toString() {
+        return "placements=" + placements + ", backtracks=" + backtracks + ", propagations=" + propagations
+                + ", nodes=" + nodesVisited + ", wall=" + wallNanos / 1000 + "us, cpu=" + cpuNanos / 1000 + "us";
+    }
+}
@@ -0,0 +1,201 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+// Picks one solver per puzzle from statistics of earlier runs, so a batch pays for one
+// solve instead of a portfolio race. Runs are grouped by PuzzleFeatures.bucket(); each
+// solver is scored by its time over all runs divided by the runs it solved, i.e. the
+// expected time to a solution if a failed run had to be repeated. A bucket with too few
+// runs of a solver defers to that solver's totals over all buckets.
+public class SolverRouter {
+
+    public static final List<String> SOLVERS = List.of("backtracking", "constraint_programming",
+            "relation_residual", "stochastic", "dancing_links");
+
+    // Chosen while nothing has been learned yet
+    private static final String DEFAULT_SOLVER = "constraint_programming";
+
+    // Runs of a solver in a bucket before the bucket's own figures are trusted
+    private static final int MIN_RUNS = 5;
+
+    // Per bucket and solver, with one extra row for the totals: runs, solved runs and
+    // nanoseconds spent, construction included
+    private final long[][] runs = new long[PuzzleFeatures.BUCKETS + 1][SOLVERS.size()];
+    private final long[][] solved = new long[PuzzleFeatures.BUCKETS + 1][SOLVERS.size()];
+    private final long[][] nanos = new long[PuzzleFeatures.BUCKETS + 1][SOLVERS.size()];
+
+    public static SudokuSolver create(String solver, int[][] puzzle) {
+        switch (solver) {
+            case "backtracking":
+                return new BacktrackingSudokuSolver(puzzle);
+            case "constraint_programming":
+                return new ConstraintProgrammingSudokuSolver(puzzle);
+            case "relation_residual":
+                return new RelationResidualSudokuSolver(puzzle);
+            case "stochastic":
+                return new StochasticSudokuSolver(puzzle);
+            case "dancing_links":
+                return new DancingLinksSudokuSolver(puzzle);
+            default:
+                throw new IllegalArgumentException("Unknown solver " + solver);
+        }
+    }
+
+    // The solver expected to be fastest for a puzzle with these features
+    public synchronized String choose(PuzzleFeatures features) {
+        int best = pick(features.bucket());
+        if (best < 0) best = pick(PuzzleFeatures.BUCKETS);
+        return best < 0 ? DEFAULT_SOLVER : SOLVERS.get(best);
+    }
+
+    // Index of the lowest-scoring solver with enough runs in row, or -1
+    private int pick(int row) {
+        int best = -1;
+        double bestScore = Double.POSITIVE_INFINITY;
+        for (int s = 0; s < SOLVERS.size(); s++) {
+            if (runs[row][s] < MIN_RUNS) continue;
+            double score = solved[row][s] == 0 ? Double.MAX_VALUE : (double) nanos[row][s] / solved[row][s];
+            if (score < bestScore) {
+                best = s;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    // Adds one run of solver on a puzzle with these features
+    public synchronized void record(PuzzleFeatures features, String solver, boolean success, long elapsedNanos) {
+        int s = SOLVERS.indexOf(solver);
+        if (s < 0) throw new IllegalArgumentException("Unknown solver " + solver);
+        for (int row : new int[]{features.bucket(), PuzzleFeatures.BUCKETS}) {
+            runs[row][s]++;
+            if (success) solved[row][s]++;
+            nanos[row][s] += elapsedNanos;
+        }
+    }
+
+    // Builds and runs solver on puzzle under budget, records the run and returns the
+    // verified result, or null if it did not solve the puzzle
+    SolveResult solve(PuzzleFeatures features, String solver, int[][] puzzle, SearchBudget budget) {
+        long start = System.nanoTime();
+        SudokuSolver instance = create(solver, puzzle);
+        instance.setBudget(budget);
+        SolveResult result = instance.trySolve();
+        boolean success = result.isSolved() && SudokuBoard.isSolution(puzzle, result.getSolution());
+        record(features, solver, success, System.nanoTime() - start);
+        return success ? result : null;
+    }
+
+    // One line per bucket and solver that has runs: bucket, solver, runs, solved, nanoseconds;
+    // the totals are rebuilt on load
+    public synchronized void save(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+            writer.write("# bucket solver runs solved nanos");
+            writer.newLine();
+            for (int bucket = 0; bucket < PuzzleFeatures.BUCKETS; bucket++) {
+                for (int s = 0; s < SOLVERS.size(); s++) {
+                    if (runs[bucket][s] == 0) continue;
+                    writer.write(bucket + " " + SOLVERS.get(s) + " " + runs[bucket][s] + " " + solved[bucket][s]
+                            + " " + nanos[bucket][s]);
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    public static SolverRouter load(Path file) throws IOException {
+        SolverRouter router = new SolverRouter();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                String[] fields = line.trim().split("\\s+");
+                int s = fields.length == 5 ? SOLVERS.indexOf(fields[1]) : -1;
+                if (s < 0) throw new IOException("Bad router statistics line: " + line);
+                try {
+                    int bucket = Integer.parseInt(fields[0]);
+                    long[] counts = {Long.parseLong(fields[2]), Long.parseLong(fields[3]), Long.parseLong(fields[4])};
+                    for (int row : new int[]{bucket, PuzzleFeatures.BUCKETS}) {
+                        router.runs[row][s] += counts[0];
+                        router.solved[row][s] += counts[1];
+                        router.nanos[row][s] += counts[2];
+                    }
+                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                    throw new IOException("Bad router statistics line: " + line);
+                }
+            }
+        }
+        return router;
+    }
+
+    // Mean microseconds per solved run of each solver over all buckets
+    @Override
+    public synchronized String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "router[", "]");
+        int row = PuzzleFeatures.BUCKETS;
+        for (int s = 0; s < SOLVERS.size(); s++) {
+            if (runs[row][s] == 0) continue;
+            joiner.add(SOLVERS.get(s) + "=" + solved[row][s] + "/" + runs[row][s] + " solved, "
+                    + (solved[row][s] == 0 ? "-" : nanos[row][s] / solved[row][s] / 1000 + "us"));
+        }
+        return joiner.toString();
+    }
+
+    // train runs every solver on every puzzle and adds the runs to the statistics file;
+    // route solves each puzzle with the chosen solver only (the portfolio race when it
+    // fails) and keeps learning from those runs
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3 || !args[0].equals("train") && !args[0].equals("route")) {
+            System.err.println("Usage: java SolverRouter train|route <puzzles.txt> <router-stats.txt> [ms per solve]");
+            return;
+        }
+        boolean train = args[0].equals("train");
+        Path stats = Path.of(args[2]);
+        SearchBudget budget = SearchBudget.ofTime(args.length > 3 ? Long.parseLong(args[3]) : 1000, TimeUnit.MILLISECONDS);
+        SolverRouter router = Files.exists(stats) ? load(stats) : new SolverRouter();
+
+        Map<String, Integer> picks = new TreeMap<>();
+        int puzzles = 0, solvedPuzzles = 0;
+        ExecutorService executor = Executors.newFixedThreadPool(SOLVERS.size());
+        long start = System.nanoTime();
+        try (BufferedReader reader = Files.newBufferedReader(Path.of(args[1]))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().length() != SudokuGeometry.CLASSIC.cells) continue;
+                PackedBoard board = new PackedBoard(SudokuGeometry.CLASSIC);
+                board.reset(line.trim());
+                int[][] puzzle = board.toGrid();
+                puzzles++;
+
+                if (train) {
+                    PuzzleFeatures features = PuzzleFeatures.of(board);
+                    boolean any = false;
+                    for (String solver : SOLVERS) {
+                        any |= router.solve(features, solver, puzzle, budget) != null;
+                    }
+                    if (any) solvedPuzzles++;
+                } else {
+                    SudokuSolverRunner.PortfolioResult result = SudokuSolverRunner.solveRouted(puzzle, router,
+                            executor, budget);
+                    if (result != null) {
+                        solvedPuzzles++;
+                        picks.merge(result.solver, 1, Integer::sum);
+                    }
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        router.save(stats);
+
+        System.out.println((train ? "Trained on " : "Routed ") + puzzles + " puzzles (" + solvedPuzzles + " solved) in "
+                + String.format("%.3f", seconds) + " s (" + String.format("%.0f", puzzles / seconds) + " puzzles/sec)");
+        if (!train) System.out.println("Answered by: " + picks);
+        System.out.println(router);
+    }
+}
@@ -1,80 +1,217 @@
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.*;
 
-public class StochasticSudokuSolver {
+public class StochasticSudokuSolver implements SudokuSolver {
 
-    private static final int SIZE = 9;
+    private final SudokuGeometry geometry;
+    private final int size;
     private int[][] board;
     private boolean[][] fixed;
-    private int stepCounter = 0;
-    private static final int MAX_STEPS = 360000;
+    private final AnnealingSchedule schedule;
+
+    // Every random choice comes from this generator, so a seed replays a chain exactly
+    private final long seed;
+    private final SplittableRandom rand;
+
+    // Seed of the chain that produced the current solution: this solver's own, or the
+    // winning chain's after solveParallel
+    private long solutionSeed;
+
+    // Free (non-given) cells of each block, as flat cell indices
+    private int[][] freeCells;
+
+    // How often each digit occurs in every row and column of the current board
+    private int[][] rowCount;
+    private int[][] colCount;
+
+    // Accepted swaps count as placements and rejected swaps as backtracks
+    private final SolverMetrics metrics = new SolverMetrics();
+    private TraceSink trace = NoOpTraceSink.INSTANCE;
+    private SearchBudget budget = SearchBudget.UNLIMITED;
+    private SearchBudget.Tracker tracker = SearchBudget.UNLIMITED.start(0);
+    private SolveStatus status = SolveStatus.NOT_STARTED;
+    private int remainingConflicts;
 
     public StochasticSudokuSolver(int[][] input) {
-        board = new int[SIZE][SIZE];
-        fixed = new boolean[SIZE][SIZE];
+        this(input, AnnealingSchedule.DEFAULT);
+    }
+
+    public StochasticSudokuSolver(int[][] input, AnnealingSchedule schedule) {
+        this(input, schedule, new SplittableRandom().nextLong());
+    }
+
+    // The annealer rewrites every free cell, so it keeps its own int grid either way
+    public StochasticSudokuSolver(PackedBoard input, AnnealingSchedule schedule, long seed) {
+        this(input.toGrid(), schedule, seed);
+    }
+
+    public StochasticSudokuSolver(int[][] input, AnnealingSchedule schedule, long seed) {
+        this.schedule = schedule;
+        this.seed = seed;
+        this.rand = new SplittableRandom(seed);
+        this.solutionSeed = seed;
+        geometry = SudokuGeometry.of(input);
+        size = geometry.size;
+        board = new int[size][size];
+        fixed = new boolean[size][size];
 
         // Copy input and mark fixed cells
-        for (int i = 0; i < SIZE; i++) {
-            for (int j = 0; j < SIZE; j++) {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
                 board[i][j] = input[i][j];
                 fixed[i][j] = input[i][j] != 0;
             }
         }
+
+        freeCells = new int[size][];
+        for (int block = 0; block < size; block++) {
+            int[] cells = new int[size];
+            int count = 0;
+            for (int cell : geometry.unit(2 * size + block)) {
+                if (!fixed[cell / size][cell % size]) {
+                    cells[count++] = cell;
+                }
+            }
+            freeCells[block] = Arrays.copyOf(cells, count);
+        }
+        rowCount = new int[size][size + 1];
+        colCount = new int[size][size + 1];
     }
 
     public boolean solve() {
-        List<String> steps = new ArrayList<>();
+        trySolve();
+        return report(remainingConflicts);
+    }
+
+    @Override
+    public String name() {
+        return "stochastic";
+    }
+
+    @Override
+    public SolveResult trySolve() {
+        SolverMetrics before = metrics.copy();
+        tracker = budget.start(metrics.nodesVisited);
+        metrics.start();
+        remainingConflicts = anneal();
+        metrics.stop();
+
+        // A chain that stops short of zero conflicts has run out of steps or budget;
+        // annealing cannot prove a puzzle unsolvable
+        if (remainingConflicts == 0) {
+            status = SolveStatus.SOLVED;
+        } else {
+            status = Thread.currentThread().isInterrupted() ? SolveStatus.CANCELLED : SolveStatus.BUDGET_EXCEEDED;
+        }
+        return new SolveResult(name(), status, remainingConflicts == 0 ? getSolution() : null, before, metrics);
+    }
+
+    // Runs independent chains on separate threads, each with its own seeded RNG. The
+    // first chain to reach zero conflicts wins and the others are interrupted. Chains
+    // do not record to the trace sink. Which chain wins depends on thread timing, but
+    // solve() with getSolutionSeed() replays the winning chain exactly. Returns false,
+    // without printing anything, when every chain stops short.
+    public boolean solveParallel(int chains) throws InterruptedException {
+        tracker = budget.start(metrics.nodesVisited);
+        int[][] givens = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                givens[i][j] = fixed[i][j] ? board[i][j] : 0;
+            }
+        }
+
+        List<Callable<StochasticSudokuSolver>> tasks = new ArrayList<>();
+        for (int i = 0; i < chains; i++) {
+            StochasticSudokuSolver chain = new StochasticSudokuSolver(givens, schedule, rand.nextLong());
+            chain.tracker = tracker.fork(0);
+            tasks.add(() -> {
+                int remaining = chain.anneal();
+                if (remaining > 0) throw new IllegalStateException("Chain stopped with " + remaining + " conflicts");
+                return chain;
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(chains);
+        metrics.start();
+        try {
+            StochasticSudokuSolver winner = pool.invokeAny(tasks);
+            for (int i = 0; i < size; i++) {
+                board[i] = winner.board[i].clone();
+            }
+            metrics.add(winner.metrics);
+            solutionSeed = winner.seed;
+            status = SolveStatus.SOLVED;
+        } catch (ExecutionException e) {
+            // No chain reached zero conflicts; getStatus() tells a budget stop from a cancel
+            status = Thread.currentThread().isInterrupted() ? SolveStatus.CANCELLED : SolveStatus.BUDGET_EXCEEDED;
+            return false;
+        } finally {
+            pool.shutdownNow();
+            metrics.stop();
+        }
+        return report(0);
+    }
+
+    // Simulated annealing over swaps inside blocks; returns the conflicts left
+    private int anneal() {
         fillRandomInBlocks(); // Fill the board with random numbers
         int conflicts = computeConflicts();
-        Random rand = new Random();
-
-        // Loop until 0 conflicts or maximum steps reached
-        while (conflicts > 0 && stepCounter < MAX_STEPS) {
-            int blockRow = rand.nextInt(3);
-            int blockCol = rand.nextInt(3);
-
-            // Get swappable cells
-            List<int[]> swappables = new ArrayList<>();
-            for (int i = 0; i < 3; i++) {
-                for (int j = 0; j < 3; j++) {
-                    int r = blockRow * 3 + i;
-                    int c = blockCol * 3 + j;
-                    if (!fixed[r][c]) {
-                        swappables.add(new int[]{r, c});
-                    }
-                }
-            }
+        int best = conflicts;
+        int sinceImprovement = 0;
+        long stepCounter = 0;
+        double temperature = schedule.getInitialTemperature();
+
+        // Loop until 0 conflicts, maximum steps or budget reached, or cancelled by another solver
+        while (conflicts > 0 && stepCounter < schedule.getMaxSteps() && !Thread.currentThread().isInterrupted()
+                && !tracker.exceeded(metrics.nodesVisited)) {
+            int[] swappables = freeCells[rand.nextInt(size)];
 
-            if (swappables.size() < 2) {
-                stepCounter++;
+            metrics.nodesVisited++;
+            stepCounter++;
+            if (swappables.length < 2) {
                 continue;
             }
 
-            int[] cell1 = swappables.get(rand.nextInt(swappables.size()));
-            int[] cell2 = swappables.get(rand.nextInt(swappables.size()));
-            while (Arrays.equals(cell1, cell2)) {
-                cell2 = swappables.get(rand.nextInt(swappables.size()));
-            }
+            // Two distinct free cells of the block
+            int first = rand.nextInt(swappables.length);
+            int second = rand.nextInt(swappables.length - 1);
+            if (second >= first) second++;
+            int cell1 = swappables[first];
+            int cell2 = swappables[second];
 
-            // Swap cells
-            swap(cell1, cell2);
-            int newConflicts = computeConflicts();
+            // Only the two rows and columns involved can change, so score the swap before making it
+            int delta = swapDelta(cell1, cell2);
 
-            if (newConflicts <= conflicts || rand.nextDouble() < 0.01) {
-                conflicts = newConflicts;
-                steps.add("Step: Swapped (" + cell1[0] + "," + cell1[1] + ") with (" + cell2[0] + "," + cell2[1] + ")");
+            // Metropolis rule: worse moves get through with probability e^(-delta / T)
+            if (delta <= 0 || rand.nextDouble() < Math.exp(-delta / temperature)) {
+                swap(cell1, cell2);
+                conflicts += delta;
+                metrics.placements++;
+                trace.record(cell1, cell2, TraceSink.SWAPPED);
             } else {
-                swap(cell1, cell2); // Undo swap
+                metrics.backtracks++;
             }
 
-            stepCounter++;
+            // Cool down, and reheat when the chain has stagnated
+            if (conflicts < best) {
+                best = conflicts;
+                sinceImprovement = 0;
+            } else if (++sinceImprovement >= schedule.getReheatAfter()) {
+                temperature = schedule.getReheatTemperature();
+                sinceImprovement = 0;
+            }
+            temperature = Math.max(schedule.getMinTemperature(), temperature * schedule.getCoolingRate());
         }
+        return conflicts;
+    }
 
+    private boolean report(int conflicts) {
         // Print the result and write steps to file
         if (conflicts == 0) {
             System.out.println("Stochastic Solver Success");
             writeSolutionToFile("stochastic_solution.txt"); // Write final solution to file
-            writeStepsToFile(steps, "stochastic_steps.txt"); // Write steps to file
+            writeStepsToFile("stochastic_steps.txt"); // Write steps to file
             printBoard();
             return true;
         } else {
@@ -83,63 +220,136 @@ public class StochasticSudokuSolver {
         }
     }
 
-    private void swap(int[] a, int[] b) {
-        int temp = board[a[0]][a[1]];
-        board[a[0]][a[1]] = board[b[0]][b[1]];
-        board[b[0]][b[1]] = temp;
+    // Where accepted swaps are recorded; nothing is kept by default
+    public void setTraceSink(TraceSink trace) {
+        this.trace = trace;
+    }
+
+    // Step and wall-clock limits for each solve, on top of the schedule's maxSteps; unlimited
+    // by default. In parallel mode the deadline covers all chains and the step limit each chain.
+    @Override
+    public void setBudget(SearchBudget budget) {
+        this.budget = budget;
     }
 
-    private void fillRandomInBlocks() {
-        Random rand = new Random();
+    // How the last solve ended, e.g. BUDGET_EXCEEDED with partial counts in getMetrics
+    public SolveStatus getStatus() {
+        return status;
+    }
 
-        for (int blockRow = 0; blockRow < 3; blockRow++) {
-            for (int blockCol = 0; blockCol < 3; blockCol++) {
-                List<Integer> nums = new ArrayList<>();
-                boolean[] used = new boolean[SIZE + 1];
+    public long getSeed() {
+        return seed;
+    }
 
-                // Collect used numbers in the block
-                for (int i = 0; i < 3; i++) {
-                    for (int j = 0; j < 3; j++) {
-                        int row = blockRow * 3 + i;
-                        int col = blockCol * 3 + j;
-                        if (fixed[row][col]) {
-                            used[board[row][col]] = true;
-                        }
-                    }
-                }
+    public long getSolutionSeed() {
+        return solutionSeed;
+    }
+
+    public SolverMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int[][] getSolution() {
+        int[][] grid = new int[size][size];
+        for (int i = 0; i < size; i++) {
+            grid[i] = board[i].clone();
+        }
+        return grid;
+    }
+
+    private void swap(int cell1, int cell2) {
+        int r1 = cell1 / size, c1 = cell1 % size, r2 = cell2 / size, c2 = cell2 % size;
+        int a = board[r1][c1], b = board[r2][c2];
+        board[r1][c1] = b;
+        board[r2][c2] = a;
+        rowCount[r1][a]--;
+        rowCount[r1][b]++;
+        rowCount[r2][b]--;
+        rowCount[r2][a]++;
+        colCount[c1][a]--;
+        colCount[c1][b]++;
+        colCount[c2][b]--;
+        colCount[c2][a]++;
+    }
+
+    // Change in conflicts if the two cells were swapped, without touching the board
+    private int swapDelta(int cell1, int cell2) {
+        int r1 = cell1 / size, c1 = cell1 % size, r2 = cell2 / size, c2 = cell2 % size;
+        int a = board[r1][c1], b = board[r2][c2];
+        if (a == b) return 0;
+        int delta = 0;
+        if (r1 != r2) delta += lineDelta(rowCount[r1], a, b) + lineDelta(rowCount[r2], b, a);
+        if (c1 != c2) delta += lineDelta(colCount[c1], a, b) + lineDelta(colCount[c2], b, a);
+        return delta;
+    }
+
+    // A line's conflicts are its missing digits: losing the last `out` adds one,
+    // gaining a first `in` removes one
+    private static int lineDelta(int[] count, int out, int in) {
+        return (count[out] == 1 ? 1 : 0) - (count[in] == 0 ? 1 : 0);
+    }
 
-                // Fill remaining numbers
-                for (int n = 1; n <= SIZE; n++) {
-                    if (!used[n]) nums.add(n);
+    void fillRandomInBlocks() {
+        for (int block = 0; block < size; block++) {
+            int[] blockCells = geometry.unit(2 * size + block);
+            int[] nums = new int[size];
+            int count = 0;
+            boolean[] used = new boolean[size + 1];
+
+            // Collect used numbers in the block
+            for (int cell : blockCells) {
+                if (fixed[cell / size][cell % size]) {
+                    used[board[cell / size][cell % size]] = true;
                 }
-                Collections.shuffle(nums);
-
-                // Assign to non-fixed cells
-                for (int i = 0; i < 3; i++) {
-                    for (int j = 0; j < 3; j++) {
-                        int row = blockRow * 3 + i;
-                        int col = blockCol * 3 + j;
-                        if (!fixed[row][col]) {
-                            board[row][col] = nums.remove(0);
-                        }
-                    }
+            }
+
+            // Fill remaining numbers
+            for (int n = 1; n <= size; n++) {
+                if (!used[n]) nums[count++] = n;
+            }
+            shuffle(nums, count);
+
+            // Assign to non-fixed cells
+            int next = 0;
+            for (int cell : blockCells) {
+                if (!fixed[cell / size][cell % size]) {
+                    board[cell / size][cell % size] = nums[next++];
                 }
             }
         }
     }
 
-    private int computeConflicts() {
+    // Fisher-Yates over the first count values
+    private void shuffle(int[] values, int count) {
+        for (int i = count - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+
+    // Rebuilds the row and column digit counts from the board and returns the total
+    // number of conflicts (digits missing from each row and column)
+    int computeConflicts() {
         int conflicts = 0;
 
         // Check for conflicts in rows and columns
-        for (int i = 0; i < SIZE; i++) {
-            Set<Integer> rowSet = new HashSet<>();
-            Set<Integer> colSet = new HashSet<>();
-            for (int j = 0; j < SIZE; j++) {
-                rowSet.add(board[i][j]);
-                colSet.add(board[j][i]);
+        for (int i = 0; i < size; i++) {
+            Arrays.fill(rowCount[i], 0);
+            Arrays.fill(colCount[i], 0);
+        }
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                rowCount[i][board[i][j]]++;
+                colCount[j][board[i][j]]++;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            for (int n = 1; n <= size; n++) {
+                if (rowCount[i][n] == 0) conflicts++;
+                if (colCount[i][n] == 0) conflicts++;
             }
-            conflicts += (SIZE - rowSet.size()) + (SIZE - colSet.size());
         }
 
         return conflicts;
@@ -147,45 +357,28 @@ public class StochasticSudokuSolver {
 
     private void printBoard() {
         System.out.println("Sudoku Solution:");
-        for (int i = 0; i < SIZE; i++) {
-            if (i % 3 == 0 && i != 0) {
-                System.out.println("------+-------+------");
-            }
-            for (int j = 0; j < SIZE; j++) {
-                if (j % 3 == 0 && j != 0) {
-                    System.out.print("| ");
-                }
-                System.out.print(board[i][j] + " ");
-            }
-            System.out.println();
+        try {
+            BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out));
+            geometry.writeGrid(out, board);
+            out.flush();
+        } catch (IOException e) {
+            System.err.println("Error printing board: " + e.getMessage());
         }
         System.out.println();
     }
 
     private void writeSolutionToFile(String fileName) {
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
-            for (int i = 0; i < SIZE; i++) {
-                for (int j = 0; j < SIZE; j++) {
-                    writer.write(board[i][j] + " ");
-                    if (j == 2 || j == 5) writer.write("| ");
-                }
-                writer.newLine();
-                if (i == 2 || i == 5) {
-                    writer.write("------+-------+------");
-                    writer.newLine();
-                }
-            }
+            geometry.writeGrid(writer, board);
         } catch (IOException e) {
             System.err.println("Error writing solution to file: " + e.getMessage());
         }
     }
 
-    private void writeStepsToFile(List<String> steps, String fileName) {
+    private void writeStepsToFile(String fileName) {
+        if (!trace.isEnabled()) return;
         try (BufferedWriter writer = new BufferedWriter(new FileWriter(fileName))) {
-            for (String step : steps) {
-                writer.write(step);
-                writer.newLine();
-            }
+            trace.writeTo(writer, size);
         } catch (IOException e) {
             System.err.println("Error writing steps to file: " + e.getMessage());
         }
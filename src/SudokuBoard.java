@@ -0,0 +1,133 @@
+import java.util.Arrays;
+
+public class SudokuBoard {
+
+    private final SudokuGeometry geometry;
+    private final int size;
+    private final int[] cells;
+
+    // Digits placed in each row, column and box: bit (n - 1) is set once n is used
+    private final long[] rowUsed;
+    private final long[] colUsed;
+    private final long[] boxUsed;
+
+    public SudokuBoard(int[][] input) {
+        this(input, SudokuGeometry.of(input));
+    }
+
+    public SudokuBoard(int[][] input, SudokuGeometry geometry) {
+        this.geometry = geometry;
+        size = geometry.size;
+        cells = new int[geometry.cells];
+        rowUsed = new long[size];
+        colUsed = new long[size];
+        boxUsed = new long[size];
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                if (input[i][j] != 0) {
+                    place(i, j, input[i][j]);
+                }
+            }
+        }
+    }
+
+    public SudokuBoard(PackedBoard packed) {
+        geometry = packed.geometry();
+        size = geometry.size;
+        cells = new int[geometry.cells];
+        rowUsed = new long[size];
+        colUsed = new long[size];
+        boxUsed = new long[size];
+        reset(packed);
+    }
+
+    // Replaces the whole board with packed's givens, keeping the arrays; the geometry must match
+    public void reset(PackedBoard packed) {
+        if (packed.geometry() != geometry) {
+            throw new IllegalArgumentException("Board is " + size + "x" + size + ", not " + packed.geometry().size);
+        }
+        Arrays.fill(cells, 0);
+        Arrays.fill(rowUsed, 0);
+        Arrays.fill(colUsed, 0);
+        Arrays.fill(boxUsed, 0);
+        for (int cell = 0; cell < cells.length; cell++) {
+            int num = packed.get(cell);
+            if (num != 0) {
+                place(cell / size, cell % size, num);
+            }
+        }
+    }
+
+    public SudokuGeometry geometry() {
+        return geometry;
+    }
+
+    public int get(int row, int col) {
+        return cells[row * size + col];
+    }
+
+    public boolean isEmpty(int row, int col) {
+        return cells[row * size + col] == 0;
+    }
+
+    public void place(int row, int col, int num) {
+        long bit = 1L << (num - 1);
+        cells[row * size + col] = num;
+        rowUsed[row] |= bit;
+        colUsed[col] |= bit;
+        boxUsed[geometry.box(row, col)] |= bit;
+    }
+
+    public void unplace(int row, int col) {
+        long bit = ~(1L << (cells[row * size + col] - 1));
+        cells[row * size + col] = 0;
+        rowUsed[row] &= bit;
+        colUsed[col] &= bit;
+        boxUsed[geometry.box(row, col)] &= bit;
+    }
+
+    // Bitmask of digits that can still go in (row, col) without clashing
+    public long candidates(int row, int col) {
+        return ~(rowUsed[row] | colUsed[col] | boxUsed[geometry.box(row, col)]) & geometry.allDigits;
+    }
+
+    public int countCandidates(int row, int col) {
+        return Long.bitCount(candidates(row, col));
+    }
+
+    public boolean isValid(int row, int col, int num) {
+        return (candidates(row, col) & (1L << (num - 1))) != 0;
+    }
+
+    public int[][] toGrid() {
+        int[][] grid = new int[size][size];
+        for (int cell = 0; cell < cells.length; cell++) {
+            grid[cell / size][cell % size] = cells[cell];
+        }
+        return grid;
+    }
+
+    // True if grid is a complete, valid Sudoku that keeps every given of puzzle
+    public static boolean isSolution(int[][] puzzle, int[][] grid) {
+        SudokuGeometry geometry = SudokuGeometry.of(puzzle);
+        int size = geometry.size;
+        if (grid.length != size) return false;
+        long[] rowUsed = new long[size], colUsed = new long[size], boxUsed = new long[size];
+        for (int i = 0; i < size; i++) {
+            if (grid[i].length != size) return false;
+            for (int j = 0; j < size; j++) {
+                int num = grid[i][j];
+                if (num < 1 || num > size) return false;
+                if (puzzle[i][j] != 0 && puzzle[i][j] != num) return false;
+                rowUsed[i] |= 1L << (num - 1);
+                colUsed[j] |= 1L << (num - 1);
+                boxUsed[geometry.box(i, j)] |= 1L << (num - 1);
+            }
+        }
+        for (int k = 0; k < size; k++) {
+            long all = geometry.allDigits;
+            if (rowUsed[k] != all || colUsed[k] != all || boxUsed[k] != all) return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,124 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class SudokuGeometry {
+
+    // Candidate sets are single long bitmasks, which caps the digit count
+    public static final int MAX_SIZE = 64;
+
+    private static final ConcurrentHashMap<Integer, SudokuGeometry> CACHE = new ConcurrentHashMap<>();
+
+    public static final SudokuGeometry CLASSIC = of(3, 3);
+
+    // A box is boxRows tall and boxCols wide; the grid is size x size with size = boxRows * boxCols
+    public final int boxRows;
+    public final int boxCols;
+    public final int size;
+    public final int cells;
+    public final int units;
+    public final long allDigits;
+
+    private final int[] boxOf;
+    private final int[][] peers;
+    private final int[][] unitCells;
+
+    private SudokuGeometry(int boxRows, int boxCols) {
+        this.boxRows = boxRows;
+        this.boxCols = boxCols;
+        this.size = boxRows * boxCols;
+        this.cells = size * size;
+        this.units = 3 * size;
+        this.allDigits = size == 64 ? -1L : (1L << size) - 1;
+
+        boxOf = new int[cells];
+        for (int cell = 0; cell < cells; cell++) {
+            boxOf[cell] = (cell / size / boxRows) * boxRows + cell % size / boxCols;
+        }
+
+        // Units as flat cell indices: rows first, then columns, then boxes (row-major inside)
+        unitCells = new int[units][size];
+        for (int cell = 0; cell < cells; cell++) {
+            int row = cell / size, col = cell % size;
+            unitCells[row][col] = cell;
+            unitCells[size + col][row] = cell;
+            unitCells[2 * size + boxOf[cell]][(row % boxRows) * boxCols + col % boxCols] = cell;
+        }
+
+        // Every cell's peers (same row, column or box)
+        int peerCount = 3 * size - boxRows - boxCols - 1;
+        peers = new int[cells][peerCount];
+        for (int cell = 0; cell < cells; cell++) {
+            int row = cell / size, col = cell % size;
+            int count = 0;
+            for (int other = 0; other < cells; other++) {
+                boolean related = other / size == row || other % size == col || boxOf[other] == boxOf[cell];
+                if (other != cell && related) {
+                    peers[cell][count++] = other;
+                }
+            }
+        }
+    }
+
+    public static SudokuGeometry of(int boxRows, int boxCols) {
+        if (boxRows < 1 || boxCols < 1 || boxRows * boxCols > MAX_SIZE) {
+            throw new IllegalArgumentException("Unsupported box size " + boxRows + "x" + boxCols);
+        }
+        return CACHE.computeIfAbsent(boxRows * 256 + boxCols, key -> new SudokuGeometry(boxRows, boxCols));
+    }
+
+    // Square boxes where possible (9, 16, 25), otherwise the squarest split such as 2x3 for 6
+    public static SudokuGeometry forSize(int size) {
+        int boxRows = (int) Math.sqrt(size);
+        while (boxRows > 1 && size % boxRows != 0) boxRows--;
+        return of(boxRows, size / boxRows);
+    }
+
+    public static SudokuGeometry of(int[][] grid) {
+        return forSize(grid.length);
+    }
+
+    public int box(int row, int col) {
+        return boxOf[row * size + col];
+    }
+
+    public int boxOf(int cell) {
+        return boxOf[cell];
+    }
+
+    public int[] peers(int cell) {
+        return peers[cell];
+    }
+
+    // Rows are units 0..size-1, columns size..2*size-1 and boxes 2*size..3*size-1
+    public int[] unit(int unit) {
+        return unitCells[unit];
+    }
+
+    // Writes the grid with box separators, e.g. "------+-------+------" for 9x9
+    public void writeGrid(BufferedWriter writer, int[][] grid) throws IOException {
+        int width = size > 9 ? 3 : 2;
+        StringBuilder line = new StringBuilder();
+        StringBuilder separator = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            line.setLength(0);
+            for (int j = 0; j < size; j++) {
+                String value = Integer.toString(grid[i][j]);
+                for (int pad = value.length() + 1; pad < width; pad++) line.append(' ');
+                line.append(value).append(' ');
+                if ((j + 1) % boxCols == 0 && j + 1 < size) line.append("| ");
+            }
+            writer.write(line.toString());
+            writer.newLine();
+            if ((i + 1) % boxRows == 0 && i + 1 < size) {
+                if (separator.length() == 0) {
+                    for (int k = 0; k < line.length() - 1; k++) {
+                        separator.append(line.charAt(k) == '|' ? '+' : '-');
+                    }
+                }
+                writer.write(separator.toString());
+                writer.newLine();
+            }
+        }
+    }
+}
@@ -0,0 +1,12 @@
+// What every engine offers to embedding code. trySolve works on the puzzle the solver
+// was built (or reset) with and has no console or file output; the engines' own
+// solve methods keep writing their result files for command-line use.
+public interface SudokuSolver {
+
+    // Short method name, e.g. "dancing_links"
+    String name();
+
+    void setBudget(SearchBudget budget);
+
+    SolveResult trySolve();
+}
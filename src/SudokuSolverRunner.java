@@ -1,10 +1,30 @@
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 public class SudokuSolverRunner {
 
-    public static void main(String[] args) {
+    // Every solver of a race gives up after this long, so a puzzle none of them can
+    // finish does not hold the pool's threads forever
+    public static final SearchBudget DEFAULT_BUDGET = SearchBudget.ofTime(60, TimeUnit.SECONDS);
+
+    // The first verified answer of a portfolio race and the solver that produced it
+    public static final class PortfolioResult {
+        public final String solver;
+        public final int[][] solution;
+        public final SolveResult result;
+
+        PortfolioResult(SolveResult result) {
+            this.solver = result.getSolver();
+            this.solution = result.getSolution();
+            this.result = result;
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
         int[][] puzzle = {
                 {4, 0, 0, 1, 7, 5, 0, 0, 2},
                 {2, 0, 0, 3, 6, 9, 7, 0, 0},
@@ -17,42 +37,67 @@ public class SudokuSolverRunner {
                 {0, 0, 4, 0, 0, 0, 0, 6, 1}
         };
 
-        // Create solvers for each algorithm
-        BacktrackingSudokuSolver backtrackingSolver = new BacktrackingSudokuSolver(puzzle);
-        ConstraintProgrammingSudokuSolver constraintSolver = new ConstraintProgrammingSudokuSolver(puzzle);
-        RelationResidualSudokuSolver relationSolver = new RelationResidualSudokuSolver(puzzle);
-        StochasticSudokuSolver stochasticSolver = new StochasticSudokuSolver(puzzle);
-
         // Create a thread pool to run all solvers concurrently
-        ExecutorService executorService = Executors.newFixedThreadPool(4);
-
-        // Submit tasks for each solver with success message and output to file
-        executorService.submit(() -> {
-            List<String> stepsBacktracking = new ArrayList<>();
-            if (backtrackingSolver.solve(stepsBacktracking)) {
-                System.out.println("Backtracking Solver Success");
+        ExecutorService executorService = Executors.newFixedThreadPool(5);
+        try {
+            PortfolioResult result = solvePortfolio(puzzle, executorService);
+            if (result != null) {
+                System.out.println("Winner: " + result.result);
+            } else {
+                System.out.println("No solver found a solution.");
             }
-        });
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
 
-        executorService.submit(() -> {
-            if (constraintSolver.solveWithBacktracking()) {
-                System.out.println("Constraint Programming Solver Success");
-            }
-        });
+    // Races every solver on the same puzzle; the first verified solution wins and the
+    // others are interrupted, which their search loops check cooperatively
+    public static PortfolioResult solvePortfolio(int[][] puzzle, ExecutorService executorService)
+            throws InterruptedException {
+        return solvePortfolio(puzzle, executorService, DEFAULT_BUDGET);
+    }
 
-        executorService.submit(() -> {
-            if (relationSolver.solve()) {
-                System.out.println("Relation Residual Solver Success");
-            }
-        });
+    // Same race with budget applied to each solver on its own
+    public static PortfolioResult solvePortfolio(int[][] puzzle, ExecutorService executorService,
+                                                 SearchBudget budget) throws InterruptedException {
+        // One solver per algorithm, each racing through the side-effect-free trySolve
+        List<SudokuSolver> solvers = List.of(
+                new BacktrackingSudokuSolver(puzzle),
+                new ConstraintProgrammingSudokuSolver(puzzle),
+                new RelationResidualSudokuSolver(puzzle),
+                new StochasticSudokuSolver(puzzle),
+                new DancingLinksSudokuSolver(puzzle));
 
-        executorService.submit(() -> {
-            if (stochasticSolver.solve()) {
-                System.out.println("Stochastic Solver Success");
-            }
-        });
+        List<Callable<PortfolioResult>> tasks = new ArrayList<>();
+        for (SudokuSolver solver : solvers) {
+            solver.setBudget(budget);
+            tasks.add(() -> verified(puzzle, solver.trySolve()));
+        }
+
+        try {
+            // invokeAny cancels the remaining tasks as soon as one returns normally
+            return executorService.invokeAny(tasks);
+        } catch (ExecutionException e) {
+            return null; // every solver failed or was inconclusive
+        }
+    }
+
+    // Solves with only the solver router expects to be fastest for this puzzle, which
+    // learns from the run; if that solver fails, the full race decides. Null when
+    // propagation alone shows there is no solution, or nothing solved the puzzle.
+    public static PortfolioResult solveRouted(int[][] puzzle, SolverRouter router, ExecutorService executorService,
+                                              SearchBudget budget) throws InterruptedException {
+        PuzzleFeatures features = PuzzleFeatures.of(puzzle);
+        if (features.contradiction) return null;
+        SolveResult result = router.solve(features, router.choose(features), puzzle, budget);
+        return result != null ? new PortfolioResult(result) : solvePortfolio(puzzle, executorService, budget);
+    }
 
-        // Shutdown the executor after tasks are submitted
-        executorService.shutdown();
+    private static PortfolioResult verified(int[][] puzzle, SolveResult result) {
+        if (!result.isSolved() || !SudokuBoard.isSolution(puzzle, result.getSolution())) {
+            throw new IllegalStateException(result + " did not produce a valid solution");
+        }
+        return new PortfolioResult(result);
     }
 }
@@ -0,0 +1,30 @@
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+
+public class TextTraceSink implements TraceSink {
+
+    // Every event, packed; text is only produced when the trace is written out
+    private int[] events = new int[1024];
+    private int size;
+
+    @Override
+    public void record(int cell, int value, int event) {
+        if (size == events.length) {
+            events = Arrays.copyOf(events, size * 2);
+        }
+        events[size++] = TraceSink.pack(cell, value, event);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void writeTo(Writer writer, int boardSize) throws IOException {
+        for (int i = 0; i < size; i++) {
+            writer.write(TraceSink.format(events[i], boardSize));
+            writer.write(System.lineSeparator());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+import java.io.IOException;
+import java.io.Writer;
+
+public interface TraceSink {
+
+    int PLACED = 0;
+    int BACKTRACKED = 1;
+    int SWAPPED = 2; // value holds the second cell of the swap
+
+    void record(int cell, int value, int event);
+
+    // Solvers skip writing a steps file for sinks that keep nothing
+    default boolean isEnabled() {
+        return true;
+    }
+
+    // size is the board's side length, used to print cells as (row,col)
+    void writeTo(Writer writer, int size) throws IOException;
+
+    // One event in a single int: event in the top byte, then 12 bits of value and cell
+    static int pack(int cell, int value, int event) {
+        return event << 24 | value << 12 | cell;
+    }
+
+    static String format(int entry, int size) {
+        int cell = entry & 0xFFF, value = (entry >>> 12) & 0xFFF, event = entry >>> 24;
+        String at = "(" + cell / size + "," + cell % size + ")";
+        switch (event) {
+            case PLACED:
+                return "Step: " + at + " = " + value + " (Placed)";
+            case BACKTRACKED:
+                return "Step: " + at + " = " + value + " (Backtracked)";
+            default:
+                return "Step: Swapped " + at + " with (" + value / size + "," + value % size + ")";
+        }
+    }
+}
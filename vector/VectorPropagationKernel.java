@@ -0,0 +1,125 @@
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// ScalarPropagationKernel's sweep with the lanes in SIMD registers: every instruction
+// works on one cell or unit of SPECIES.length() puzzles (16 with AVX-512), with lane
+// masks standing in for the scalar branches. The batch is swept a block of lanes at a
+// time so a block's masks stay in cache.
+final class VectorPropagationKernel implements LanePropagationKernel {
+
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    private static final SudokuGeometry GEOMETRY = SudokuGeometry.CLASSIC;
+    private static final int SIZE = GEOMETRY.size;
+    private static final int ALL = (int) GEOMETRY.allDigits;
+
+    // Unit of each cell's row, column and box
+    private static final int[] ROW = new int[GEOMETRY.cells];
+    private static final int[] COL = new int[GEOMETRY.cells];
+    private static final int[] BOX = new int[GEOMETRY.cells];
+
+    static {
+        for (int cell = 0; cell < GEOMETRY.cells; cell++) {
+            ROW[cell] = cell / SIZE;
+            COL[cell] = SIZE + cell % SIZE;
+            BOX[cell] = 2 * SIZE + GEOMETRY.boxOf(cell);
+        }
+    }
+
+    @Override
+    public int laneMultiple() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public boolean sweep(int lanes, int[] open, int[] digit, int[] used, int[] dead) {
+        boolean changed = false;
+        for (int base = 0; base < lanes; base += SPECIES.length()) {
+            changed |= sweepBlock(lanes, base, open, digit, used, dead);
+        }
+        return changed;
+    }
+
+    private static boolean sweepBlock(int lanes, int base, int[] open, int[] digit, int[] used, int[] dead) {
+        IntVector zero = IntVector.zero(SPECIES);
+        VectorMask<Integer> live = IntVector.fromArray(SPECIES, dead, base).compare(VectorOperators.EQ, 0);
+        if (!live.anyTrue()) return false;
+        VectorMask<Integer> alive = live;
+        VectorMask<Integer> changed = SPECIES.maskAll(false);
+
+        // Naked singles
+        for (int cell = 0; cell < GEOMETRY.cells; cell++) {
+            int at = cell * lanes + base;
+            IntVector mask = IntVector.fromArray(SPECIES, open, at);
+            VectorMask<Integer> active = mask.compare(VectorOperators.NE, 0).and(live);
+            if (!active.anyTrue()) continue;
+
+            int row = ROW[cell] * lanes + base, col = COL[cell] * lanes + base, box = BOX[cell] * lanes + base;
+            IntVector rowUsed = IntVector.fromArray(SPECIES, used, row);
+            IntVector colUsed = IntVector.fromArray(SPECIES, used, col);
+            IntVector boxUsed = IntVector.fromArray(SPECIES, used, box);
+            IntVector left = mask.and(rowUsed.or(colUsed).or(boxUsed).not());
+
+            VectorMask<Integer> empty = left.compare(VectorOperators.EQ, 0).and(active);
+            live = live.andNot(empty);
+            active = active.andNot(empty);
+            VectorMask<Integer> single = left.and(left.sub(1)).compare(VectorOperators.EQ, 0).and(active);
+            changed = changed.or(left.compare(VectorOperators.NE, mask).and(active));
+
+            mask.blend(left, active).blend(zero, single).intoArray(open, at);
+            if (single.anyTrue()) {
+                IntVector placed = zero.blend(left, single);
+                IntVector.fromArray(SPECIES, digit, at).or(placed).intoArray(digit, at);
+                rowUsed.or(placed).intoArray(used, row);
+                colUsed.or(placed).intoArray(used, col);
+                boxUsed.or(placed).intoArray(used, box);
+            }
+        }
+
+        // Hidden singles
+        for (int unit = 0; unit < GEOMETRY.units; unit++) {
+            int[] cells = GEOMETRY.unit(unit);
+            IntVector once = zero, twice = zero;
+            for (int cell : cells) {
+                IntVector mask = IntVector.fromArray(SPECIES, open, cell * lanes + base);
+                twice = twice.or(once.and(mask));
+                once = once.or(mask);
+            }
+            IntVector placed = IntVector.fromArray(SPECIES, used, unit * lanes + base);
+            live = live.andNot(once.or(placed).compare(VectorOperators.NE, ALL));
+            IntVector hidden = once.and(twice.or(placed).not());
+            if (!hidden.compare(VectorOperators.NE, 0).and(live).anyTrue()) continue;
+
+            for (int cell : cells) {
+                int at = cell * lanes + base;
+                IntVector mask = IntVector.fromArray(SPECIES, open, at);
+                IntVector bit = mask.and(hidden);
+                VectorMask<Integer> hit = bit.compare(VectorOperators.NE, 0).and(live);
+                if (!hit.anyTrue()) continue;
+
+                int row = ROW[cell] * lanes + base, col = COL[cell] * lanes + base, box = BOX[cell] * lanes + base;
+                IntVector rowUsed = IntVector.fromArray(SPECIES, used, row);
+                IntVector colUsed = IntVector.fromArray(SPECIES, used, col);
+                IntVector boxUsed = IntVector.fromArray(SPECIES, used, box);
+                VectorMask<Integer> bad = bit.and(bit.sub(1)).compare(VectorOperators.NE, 0)
+                        .or(bit.and(rowUsed.or(colUsed).or(boxUsed)).compare(VectorOperators.NE, 0)).and(hit);
+                live = live.andNot(bad);
+                hit = hit.andNot(bad);
+                changed = changed.or(hit);
+
+                IntVector place = zero.blend(bit, hit);
+                mask.blend(zero, hit).intoArray(open, at);
+                IntVector.fromArray(SPECIES, digit, at).or(place).intoArray(digit, at);
+                rowUsed.or(place).intoArray(used, row);
+                colUsed.or(place).intoArray(used, col);
+                boxUsed.or(place).intoArray(used, box);
+            }
+        }
+
+        VectorMask<Integer> killed = alive.andNot(live);
+        if (killed.anyTrue()) IntVector.fromArray(SPECIES, dead, base).blend(1, killed).intoArray(dead, base);
+        return changed.anyTrue();
+    }
+}